@@ -0,0 +1,83 @@
+package me.croabeast.scheduler;
+
+import me.croabeast.scheduler.stub.StubServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput of blocking async tasks (each parks for a few milliseconds, like a
+ * database call) on the server's bounded async pool versus virtual threads.
+ * The virtual backend needs a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BlockingAsyncBenchmark {
+
+    private static final int TASKS = 512;
+
+    @Param({"bounded-pool", "virtual"})
+    public String backend;
+
+    @Param({"8"})
+    public int poolSize;
+
+    @Param({"5"})
+    public long blockMillis;
+
+    private ExecutorService pool;
+    private GlobalScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StubServer server = StubServer.get();
+        pool = Executors.newFixedThreadPool(poolSize);
+        server.setAsyncPool(pool);
+
+        scheduler = new FoliaScheduler(server.getPlugin());
+        if (backend.equals("virtual") && !scheduler.setVirtualThreads(true))
+            throw new IllegalStateException("Virtual threads need a Java 21 runtime");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        StubServer.get().setAsyncPool(null);
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void blockingTasks() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(TASKS);
+        long blockNanos = TimeUnit.MILLISECONDS.toNanos(blockMillis);
+
+        for (int i = 0; i < TASKS; i++)
+            scheduler.runTaskAsynchronously(() -> {
+                LockSupport.parkNanos(blockNanos);
+                latch.countDown();
+            });
+
+        latch.await();
+    }
+}
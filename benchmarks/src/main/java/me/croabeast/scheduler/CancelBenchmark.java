@@ -0,0 +1,58 @@
+package me.croabeast.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average latency of cancelling a pending delayed task, by handle and by id.
+ * Tasks are scheduled in batches outside the measured region.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CancelBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @State(Scope.Thread)
+    public static class Batch {
+
+        final RunnableTask[] tasks = new RunnableTask[BATCH];
+
+        @Setup(Level.Invocation)
+        public void schedule(SchedulerState state) {
+            for (int i = 0; i < BATCH; i++)
+                tasks[i] = state.scheduler.runTaskLater(SchedulerState.NOOP, 1_000L);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void cancelByHandle(Batch batch) {
+        for (RunnableTask task : batch.tasks) task.cancel();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void cancelById(SchedulerState state, Batch batch, Blackhole hole) {
+        for (RunnableTask task : batch.tasks) {
+            state.scheduler.cancel(task.getTaskId());
+            hole.consume(task);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package me.croabeast.scheduler;
+
+import me.croabeast.scheduler.stub.StubServer;
+import me.croabeast.scheduler.stub.Stubs;
+import org.bukkit.Location;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedule throughput on one shared scheduler as the number of calling threads
+ * grows, which is where task id allocation and the task registry contend.
+ * Throughput should scale with the thread count instead of flattening out.
+ * <p>
+ * Every thread schedules at its own location so the per-region bookkeeping does
+ * not serialize them, and the {@code ids} benchmarks drive id allocation and the
+ * registry alone, without the stub server in the way.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentionBenchmark {
+
+    /**
+     * A location of its own for every benchmark thread, a few chunks apart.
+     */
+    @State(Scope.Thread)
+    public static class Region {
+
+        Location location;
+
+        @Setup(Level.Trial)
+        public void setUp(SchedulerState state, ThreadParams params) {
+            location = Stubs.location(state.server.getWorld(), params.getThreadIndex() * 64, 0);
+        }
+    }
+
+    /**
+     * The id counter and registry of a Folia scheduler, shared by all threads.
+     */
+    @State(Scope.Benchmark)
+    public static class Registry {
+
+        FoliaScheduler scheduler;
+        TaskRegistry<Runnable> tasks;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            scheduler = new FoliaScheduler(StubServer.get().getPlugin());
+            tasks = new TaskRegistry<>();
+        }
+    }
+
+    private static RunnableTask schedule(SchedulerState state, Region region, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runTask(region.location, SchedulerState.NOOP);
+    }
+
+    private static boolean register(Registry registry) {
+        int id = registry.scheduler.nextId();
+        registry.tasks.put(id, SchedulerState.NOOP);
+        return registry.tasks.remove(id, SchedulerState.NOOP);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RunnableTask threads1(SchedulerState state, Region region, SchedulerState.Ticker ticker) {
+        return schedule(state, region, ticker);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public RunnableTask threads2(SchedulerState state, Region region, SchedulerState.Ticker ticker) {
+        return schedule(state, region, ticker);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RunnableTask threads4(SchedulerState state, Region region, SchedulerState.Ticker ticker) {
+        return schedule(state, region, ticker);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public RunnableTask threads8(SchedulerState state, Region region, SchedulerState.Ticker ticker) {
+        return schedule(state, region, ticker);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean ids1(Registry registry) {
+        return register(registry);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public boolean ids2(Registry registry) {
+        return register(registry);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean ids4(Registry registry) {
+        return register(registry);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean ids8(Registry registry) {
+        return register(registry);
+    }
+}
@@ -0,0 +1,88 @@
+package me.croabeast.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooldown-style workload: many delayed async tasks, most of them cancelled before
+ * they fire.
+ * <p>
+ * {@code scheduleThenCancelMost} compares the bare timing wheel with a
+ * {@link ScheduledThreadPoolExecutor} using its default policy, which is how the
+ * server async schedulers queue delayed tasks. That executor keeps cancelled entries
+ * in its heap until they're due. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DelayedAsyncBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"wheel", "scheduled-executor"})
+    public String timer;
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private final TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[BATCH];
+    private final ScheduledFuture<?>[] futures = new ScheduledFuture<?>[BATCH];
+
+    private static long delay(int i) {
+        return (200L + (i & 63)) * TimingWheel.TICK_NANOS;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void scheduleThenCancelMost() {
+        if (timer.equals("wheel")) {
+            for (int i = 0; i < BATCH; i++) {
+                TimingWheel.Timeout timeout = new TimingWheel.Timeout() {
+                    @Override
+                    void expire() {}
+                };
+                timeout.schedule(delay(i), 0L);
+                timeouts[i] = timeout;
+            }
+
+            // nine out of ten cooldowns end early
+            for (int i = 0; i < BATCH; i++)
+                if (i % 10 != 0) timeouts[i].cancelTimeout();
+            return;
+        }
+
+        for (int i = 0; i < BATCH; i++)
+            futures[i] = executor.schedule(SchedulerState.NOOP, delay(i), TimeUnit.NANOSECONDS);
+
+        for (int i = 0; i < BATCH; i++)
+            if (i % 10 != 0) futures[i].cancel(false);
+    }
+}
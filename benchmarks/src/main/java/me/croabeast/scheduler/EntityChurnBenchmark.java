@@ -0,0 +1,106 @@
+package me.croabeast.scheduler;
+
+import me.croabeast.scheduler.stub.StubServer;
+import me.croabeast.scheduler.stub.Stubs;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spawn/despawn churn on the entity lane: every operation spawns an entity, gives it a timer, a
+ * delayed task and a prepared task, lets a tick pass and removes it. The handles of the last
+ * {@value Churn#KEPT} entities are kept, as plugins often do in maps of their own.
+ * <p>
+ * After every iteration the heap used after a full GC and the number of removed entities still
+ * reachable are printed. Both should stay bounded across iterations; run with {@code -prof gc} for
+ * the bytes allocated per spawn. Only Folia is measured, since Bukkit has no entity schedulers
+ * and never retires entity tasks.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityChurnBenchmark {
+
+    @State(Scope.Thread)
+    public static class Churn {
+
+        static final int KEPT = 1024;
+
+        final RunnableTask[] timers = new RunnableTask[KEPT];
+        final RunnableTask[] delayed = new RunnableTask[KEPT];
+        final ReusableTask[] prepared = new ReusableTask[KEPT];
+        @SuppressWarnings("unchecked")
+        final WeakReference<Entity>[] removed = new WeakReference[KEPT];
+
+        StubServer server;
+        GlobalScheduler scheduler;
+        Location location;
+        int next, retired;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            server = StubServer.get();
+            scheduler = new FoliaScheduler(server.getPlugin());
+            location = Stubs.location(server.getWorld(), 0, 0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void report() {
+            scheduler.cancelAll();
+            while (server.pending() > 0) server.tick();
+
+            Runtime runtime = Runtime.getRuntime();
+            for (int i = 0; i < 3; i++) System.gc();
+
+            int reachable = 0;
+            for (WeakReference<Entity> reference : removed)
+                if (reference != null && reference.get() != null) reachable++;
+
+            System.out.printf("  used heap %d KiB, removed entities still reachable %d/%d, retired hooks %d%n",
+                    (runtime.totalMemory() - runtime.freeMemory()) >> 10, reachable, KEPT, retired);
+        }
+
+        Entity spawn(Runnable retired) {
+            Entity entity = Stubs.entity(location);
+            int slot = next++ & (KEPT - 1);
+
+            timers[slot] = scheduler.runTaskTimer(entity, SchedulerState.NOOP, retired, 1L, 1L);
+            delayed[slot] = scheduler.runTaskLater(entity, SchedulerState.NOOP, retired, 20L);
+            prepared[slot] = scheduler.prepare(entity, SchedulerState.NOOP);
+            prepared[slot].schedule();
+
+            removed[slot] = new WeakReference<>(entity);
+            return entity;
+        }
+    }
+
+    @Benchmark
+    public void churn(Churn churn) {
+        Entity entity = churn.spawn(null);
+        churn.server.tick();
+        Stubs.remove(entity);
+    }
+
+    @Benchmark
+    public void churnWithHook(Churn churn) {
+        Entity entity = churn.spawn(() -> churn.retired++);
+        churn.server.tick();
+        Stubs.remove(entity);
+    }
+}
@@ -0,0 +1,74 @@
+package me.croabeast.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A recurring task scheduled and run once per operation, either as a fresh task or through a
+ * prepared {@link ReusableTask}. Run with {@code -prof gc}: the difference in bytes per operation
+ * is what the library allocates, the rest comes from the stub server's own task and queue node.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReusableTaskBenchmark {
+
+    @State(Scope.Thread)
+    public static class Prepared {
+
+        // recreated every iteration, since the shared state cancels everything between them
+        ReusableTask global, region;
+
+        @Setup(Level.Iteration)
+        public void setUp(SchedulerState state) {
+            global = state.scheduler.prepare(SchedulerState.NOOP);
+            region = state.scheduler.prepare(state.location, SchedulerState.NOOP);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            global.cancel();
+            region.cancel();
+        }
+    }
+
+    @Benchmark
+    public void runTask(SchedulerState state) {
+        state.scheduler.runTask(SchedulerState.NOOP);
+        state.server.tick();
+    }
+
+    @Benchmark
+    public boolean prepared(SchedulerState state, Prepared prepared) {
+        boolean scheduled = prepared.global.schedule();
+        state.server.tick();
+        return scheduled;
+    }
+
+    @Benchmark
+    public void runTaskAtLocation(SchedulerState state) {
+        state.scheduler.runTask(state.location, SchedulerState.NOOP);
+        state.server.tick();
+    }
+
+    @Benchmark
+    public boolean preparedAtLocation(SchedulerState state, Prepared prepared) {
+        boolean scheduled = prepared.region.schedule();
+        state.server.tick();
+        return scheduled;
+    }
+}
@@ -0,0 +1,82 @@
+package me.croabeast.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of each scheduling entry point. Run with {@code -prof gc}
+ * to read the bytes allocated per scheduled task.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleBenchmark {
+
+    private static final int BATCH = 64;
+
+    @Benchmark
+    public RunnableTask runTask(SchedulerState state, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runTask(SchedulerState.NOOP);
+    }
+
+    @Benchmark
+    public RunnableTask runTaskLater(SchedulerState state, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runTaskLater(SchedulerState.NOOP, 1L);
+    }
+
+    @Benchmark
+    public RunnableTask runTaskAtLocation(SchedulerState state, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runTask(state.location, SchedulerState.NOOP);
+    }
+
+    @Benchmark
+    public RunnableTask runTaskForEntity(SchedulerState state, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runTask(state.entity, SchedulerState.NOOP);
+    }
+
+    @Benchmark
+    public RunnableTask runTaskAsynchronously(SchedulerState state, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runTaskAsynchronously(SchedulerState.NOOP);
+    }
+
+    @Benchmark
+    public void runTaskLaterAsynchronouslyThenCancel(SchedulerState state) {
+        state.scheduler.runTaskLaterAsynchronously(SchedulerState.NOOP, 200L).cancel();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void runTaskAtLocationOneByOne(SchedulerState state, SchedulerState.Ticker ticker, Blackhole hole) {
+        ticker.maybeTick(state);
+        for (Runnable runnable : SchedulerState.BATCH)
+            hole.consume(state.scheduler.runTask(state.location, runnable));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public RunnableTask runBatchAtLocation(SchedulerState state, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runBatch(state.location, SchedulerState.BATCH);
+    }
+
+    @Benchmark
+    public GlobalScheduler getScheduler(SchedulerState state) {
+        return GlobalScheduler.getScheduler(state.server.getPlugin());
+    }
+}
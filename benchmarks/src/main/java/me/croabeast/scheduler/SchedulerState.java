@@ -0,0 +1,86 @@
+package me.croabeast.scheduler;
+
+import me.croabeast.scheduler.stub.StubServer;
+import me.croabeast.scheduler.stub.Stubs;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shared benchmark state: one scheduler implementation running against the stub server.
+ */
+@State(Scope.Benchmark)
+public class SchedulerState {
+
+    static final Runnable NOOP = () -> {};
+    static final List<Runnable> BATCH = Collections.nCopies(64, NOOP);
+
+    @Param({"folia", "bukkit"})
+    public String implementation;
+
+    StubServer server;
+    GlobalScheduler scheduler;
+    Location location;
+    Entity entity;
+
+    static GlobalScheduler create(StubServer server, String implementation) {
+        switch (implementation) {
+            case "folia":
+                return new FoliaScheduler(server.getPlugin());
+            case "bukkit":
+                return new BukkitScheduler(server.getPlugin());
+            default:
+                throw new IllegalArgumentException("Unknown implementation " + implementation);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = StubServer.get();
+        scheduler = create(server, implementation);
+        location = Stubs.location(server.getWorld(), 0, 0);
+        entity = Stubs.entity(location);
+    }
+
+    @TearDown(Level.Iteration)
+    public void drain() {
+        scheduler.cancelAll();
+        while (server.pending() > 0) server.tick();
+    }
+
+    /**
+     * Per-thread counter that advances the stub server every few schedule calls,
+     * so queued tasks run and leave the registries instead of piling up.
+     * <p>
+     * The interval scales with the thread count so the clock keeps one tick per 256
+     * calls overall, and ticks are serialized since the stub server is not meant to
+     * be ticked from several threads at once.
+     */
+    @State(Scope.Thread)
+    public static class Ticker {
+
+        private int calls, interval;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams params) {
+            interval = 256 * params.getThreadCount();
+        }
+
+        void maybeTick(SchedulerState state) {
+            if (++calls < interval) return;
+            calls = 0;
+            synchronized (state.server) {
+                state.server.tick();
+            }
+        }
+    }
+}
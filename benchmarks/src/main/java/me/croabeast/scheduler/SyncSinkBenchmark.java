@@ -0,0 +1,53 @@
+package me.croabeast.scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Four async producers handing results over to the sync thread, either with one
+ * {@code runTask} per result or by pushing them to a {@link SyncSink}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SyncSinkBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Sink {
+
+        SyncSink<Integer> sink;
+
+        // recreated every iteration, since the shared state cancels everything between them
+        @Setup(Level.Iteration)
+        public void setUp(SchedulerState state) {
+            sink = state.scheduler.createSink(value -> {}, 0L);
+        }
+    }
+
+    @Benchmark
+    public RunnableTask runTaskPerResult(SchedulerState state, SchedulerState.Ticker ticker) {
+        ticker.maybeTick(state);
+        return state.scheduler.runTask(SchedulerState.NOOP);
+    }
+
+    @Benchmark
+    public void pushToSink(SchedulerState state, SchedulerState.Ticker ticker, Sink sink) {
+        ticker.maybeTick(state);
+        sink.sink.push(1);
+    }
+}
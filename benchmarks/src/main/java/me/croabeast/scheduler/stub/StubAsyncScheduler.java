@@ -0,0 +1,50 @@
+package me.croabeast.scheduler.stub;
+
+import io.papermc.paper.threadedregions.scheduler.AsyncScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+final class StubAsyncScheduler implements AsyncScheduler {
+
+    private final TaskQueue queue;
+    private volatile Executor pool;
+
+    void setPool(Executor pool) {
+        this.pool = pool;
+    }
+
+    private static long toTicks(long time, TimeUnit unit) {
+        return (unit.toMillis(time) + 49L) / 50L;
+    }
+
+    @Override
+    public ScheduledTask runNow(Plugin plugin, Consumer<ScheduledTask> task) {
+        Executor pool = this.pool;
+        if (pool == null) return queue.submit(plugin, task, 1L, 0L);
+
+        StubTask scheduled = new StubTask(plugin, task, 0L, 0L);
+        pool.execute(() -> scheduled.run(0L));
+        return scheduled;
+    }
+
+    @Override
+    public ScheduledTask runDelayed(Plugin plugin, Consumer<ScheduledTask> task, long delay, TimeUnit unit) {
+        return queue.submit(plugin, task, toTicks(delay, unit), 0L);
+    }
+
+    @Override
+    public ScheduledTask runAtFixedRate(Plugin plugin, Consumer<ScheduledTask> task, long initialDelay, long period, TimeUnit unit) {
+        return queue.submit(plugin, task, toTicks(initialDelay, unit), Math.max(toTicks(period, unit), 1L));
+    }
+
+    @Override
+    public void cancelTasks(Plugin plugin) {
+        queue.cancel(plugin);
+    }
+}
@@ -0,0 +1,124 @@
+package me.croabeast.scheduler.stub;
+
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backs a Bukkit {@link BukkitScheduler} proxy with the shared {@link TaskQueue}.
+ * Only the methods used by the library are implemented, the rest return defaults.
+ */
+final class StubBukkitScheduler implements InvocationHandler {
+
+    private final TaskQueue queue;
+    private final AtomicInteger ids = new AtomicInteger();
+    private final Map<Integer, Task> tasks = new ConcurrentHashMap<>();
+
+    private StubBukkitScheduler(TaskQueue queue) {
+        this.queue = queue;
+    }
+
+    static BukkitScheduler create(TaskQueue queue) {
+        return (BukkitScheduler) Proxy.newProxyInstance(
+                StubBukkitScheduler.class.getClassLoader(),
+                new Class<?>[] {BukkitScheduler.class},
+                new StubBukkitScheduler(queue)
+        );
+    }
+
+    private Task submit(Plugin plugin, Runnable runnable, boolean sync, long delay, long period) {
+        Task task = new Task(plugin, ids.incrementAndGet(), sync);
+        tasks.put(task.id, task);
+
+        task.handle = queue.submit(plugin, t -> {
+            try {
+                runnable.run();
+            } finally {
+                if (period <= 0) tasks.remove(task.id);
+            }
+        }, delay, period);
+        return task;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        String name = method.getName();
+
+        if (name.equals("cancelTask")) {
+            Task task = tasks.remove((Integer) args[0]);
+            if (task != null) task.cancel();
+            return null;
+        }
+
+        if (name.equals("cancelTasks")) {
+            tasks.values().removeIf(t -> {
+                if (t.plugin != args[0]) return false;
+                t.cancel();
+                return true;
+            });
+            return null;
+        }
+
+        if (name.equals("isCurrentlyRunning") || name.equals("isQueued"))
+            return tasks.containsKey((Integer) args[0]);
+
+        if (args == null || args.length < 2 || !(args[1] instanceof Runnable))
+            return Stubs.defaultValue(method.getReturnType());
+
+        Plugin plugin = (Plugin) args[0];
+        Runnable runnable = (Runnable) args[1];
+
+        boolean sync = !name.contains("Asynchronously");
+        long delay = args.length > 2 ? (Long) args[2] : 0L;
+        long period = args.length > 3 ? (Long) args[3] : 0L;
+
+        Task task = submit(plugin, runnable, sync, delay, period);
+        return method.getReturnType() == int.class ? task.id : task;
+    }
+
+    private static final class Task implements BukkitTask {
+
+        private final Plugin plugin;
+        private final int id;
+        private final boolean sync;
+        private volatile StubTask handle;
+
+        private Task(Plugin plugin, int id, boolean sync) {
+            this.plugin = plugin;
+            this.id = id;
+            this.sync = sync;
+        }
+
+        @Override
+        public int getTaskId() {
+            return id;
+        }
+
+        @Override
+        public Plugin getOwner() {
+            return plugin;
+        }
+
+        @Override
+        public boolean isSync() {
+            return sync;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return handle.isCancelled();
+        }
+
+        @Override
+        public void cancel() {
+            handle.cancel();
+        }
+    }
+}
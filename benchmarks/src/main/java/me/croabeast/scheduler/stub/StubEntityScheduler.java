@@ -0,0 +1,89 @@
+package me.croabeast.scheduler.stub;
+
+import io.papermc.paper.threadedregions.scheduler.EntityScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * An entity scheduler that, like Folia's, refuses new tasks once its entity is removed, calls the
+ * retired callbacks of the tasks still waiting then, and has every task hold on to its entity.
+ */
+final class StubEntityScheduler implements EntityScheduler {
+
+    private final TaskQueue queue;
+    private final Map<ScheduledTask, Runnable> live = new HashMap<>();
+
+    Entity entity;
+    private volatile boolean retired;
+
+    StubEntityScheduler(TaskQueue queue) {
+        this.queue = queue;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * Removes the entity: cancels its waiting tasks and calls their retired callbacks.
+     */
+    void retire() {
+        Map<ScheduledTask, Runnable> waiting;
+        synchronized (live) {
+            retired = true;
+            waiting = new HashMap<>(live);
+            live.clear();
+        }
+
+        waiting.forEach((task, callback) -> {
+            task.cancel();
+            if (callback != null) callback.run();
+        });
+    }
+
+    private StubTask submit(Plugin plugin, Consumer<ScheduledTask> consumer, Runnable retired, long delay, long period) {
+        synchronized (live) {
+            if (this.retired) return null;
+
+            StubTask task = queue.submit(plugin, t -> {
+                try {
+                    consumer.accept(t);
+                } finally {
+                    if (!t.isRepeatingTask() || t.isCancelled())
+                        synchronized (live) {
+                            live.remove(t);
+                        }
+                }
+            }, delay, period);
+
+            task.owner = entity;
+            live.put(task, retired);
+            return task;
+        }
+    }
+
+    @Override
+    public boolean execute(Plugin plugin, Runnable run, Runnable retired, long delay) {
+        return submit(plugin, task -> run.run(), retired, delay, 0L) != null;
+    }
+
+    @Override
+    public ScheduledTask run(Plugin plugin, Consumer<ScheduledTask> task, Runnable retired) {
+        return submit(plugin, task, retired, 1L, 0L);
+    }
+
+    @Override
+    public ScheduledTask runDelayed(Plugin plugin, Consumer<ScheduledTask> task, Runnable retired, long delayTicks) {
+        return submit(plugin, task, retired, delayTicks, 0L);
+    }
+
+    @Override
+    public ScheduledTask runAtFixedRate(Plugin plugin, Consumer<ScheduledTask> task, Runnable retired, long initialDelayTicks, long periodTicks) {
+        return submit(plugin, task, retired, initialDelayTicks, periodTicks);
+    }
+}
@@ -0,0 +1,39 @@
+package me.croabeast.scheduler.stub;
+
+import io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.plugin.Plugin;
+
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+final class StubGlobalRegionScheduler implements GlobalRegionScheduler {
+
+    private final TaskQueue queue;
+
+    @Override
+    public void execute(Plugin plugin, Runnable run) {
+        queue.submit(plugin, task -> run.run(), 1L, 0L);
+    }
+
+    @Override
+    public ScheduledTask run(Plugin plugin, Consumer<ScheduledTask> task) {
+        return queue.submit(plugin, task, 1L, 0L);
+    }
+
+    @Override
+    public ScheduledTask runDelayed(Plugin plugin, Consumer<ScheduledTask> task, long delayTicks) {
+        return queue.submit(plugin, task, delayTicks, 0L);
+    }
+
+    @Override
+    public ScheduledTask runAtFixedRate(Plugin plugin, Consumer<ScheduledTask> task, long initialDelayTicks, long periodTicks) {
+        return queue.submit(plugin, task, initialDelayTicks, periodTicks);
+    }
+
+    @Override
+    public void cancelTasks(Plugin plugin) {
+        queue.cancel(plugin);
+    }
+}
@@ -0,0 +1,56 @@
+package me.croabeast.scheduler.stub;
+
+import io.papermc.paper.threadedregions.scheduler.RegionScheduler;
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+final class StubRegionScheduler implements RegionScheduler {
+
+    private final TaskQueue queue;
+
+    @Override
+    public void execute(Plugin plugin, World world, int chunkX, int chunkZ, Runnable run) {
+        queue.submit(plugin, task -> run.run(), 1L, 0L);
+    }
+
+    @Override
+    public void execute(Plugin plugin, Location location, Runnable run) {
+        queue.submit(plugin, task -> run.run(), 1L, 0L);
+    }
+
+    @Override
+    public ScheduledTask run(Plugin plugin, World world, int chunkX, int chunkZ, Consumer<ScheduledTask> task) {
+        return queue.submit(plugin, task, 1L, 0L);
+    }
+
+    @Override
+    public ScheduledTask run(Plugin plugin, Location location, Consumer<ScheduledTask> task) {
+        return queue.submit(plugin, task, 1L, 0L);
+    }
+
+    @Override
+    public ScheduledTask runDelayed(Plugin plugin, World world, int chunkX, int chunkZ, Consumer<ScheduledTask> task, long delayTicks) {
+        return queue.submit(plugin, task, delayTicks, 0L);
+    }
+
+    @Override
+    public ScheduledTask runDelayed(Plugin plugin, Location location, Consumer<ScheduledTask> task, long delayTicks) {
+        return queue.submit(plugin, task, delayTicks, 0L);
+    }
+
+    @Override
+    public ScheduledTask runAtFixedRate(Plugin plugin, World world, int chunkX, int chunkZ, Consumer<ScheduledTask> task, long initialDelayTicks, long periodTicks) {
+        return queue.submit(plugin, task, initialDelayTicks, periodTicks);
+    }
+
+    @Override
+    public ScheduledTask runAtFixedRate(Plugin plugin, Location location, Consumer<ScheduledTask> task, long initialDelayTicks, long periodTicks) {
+        return queue.submit(plugin, task, initialDelayTicks, periodTicks);
+    }
+}
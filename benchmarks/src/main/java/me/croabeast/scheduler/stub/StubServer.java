@@ -0,0 +1,86 @@
+package me.croabeast.scheduler.stub;
+
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+import java.util.logging.Logger;
+
+/**
+ * An in-process stand-in for a Folia server. Every scheduler it exposes
+ * (Bukkit, global region, region, async and entity) feeds one {@link TaskQueue},
+ * which only advances when {@link #tick()} is called.
+ */
+public final class StubServer {
+
+    private static StubServer instance;
+
+    final TaskQueue queue = new TaskQueue();
+    private final StubAsyncScheduler async = new StubAsyncScheduler(queue);
+
+    @Getter
+    private final Plugin plugin = Stubs.plugin("Benchmark");
+    @Getter
+    private final World world = Stubs.world("world");
+    @Getter
+    private final Server server;
+
+    private StubServer() {
+        StubGlobalRegionScheduler global = new StubGlobalRegionScheduler(queue);
+        StubRegionScheduler region = new StubRegionScheduler(queue);
+        org.bukkit.scheduler.BukkitScheduler bukkit = StubBukkitScheduler.create(queue);
+        Logger logger = Logger.getLogger("StubServer");
+
+        server = Stubs.proxy(Server.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName": return "StubServer";
+                case "getVersion": case "getBukkitVersion": return "benchmark";
+                case "getLogger": return logger;
+                case "getScheduler": return bukkit;
+                case "getGlobalRegionScheduler": return global;
+                case "getRegionScheduler": return region;
+                case "getAsyncScheduler": return async;
+                case "toString": return "StubServer";
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default: return Stubs.defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * Returns the stub server, installing it through {@link Bukkit#setServer(Server)} on first use.
+     */
+    public static synchronized StubServer get() {
+        if (instance == null) {
+            instance = new StubServer();
+            Bukkit.setServer(instance.server);
+        }
+        return instance;
+    }
+
+    /**
+     * Advances every stub scheduler by one tick, running whatever became due.
+     */
+    public void tick() {
+        queue.tick();
+    }
+
+    /**
+     * Makes the stub async scheduler run tasks right away on the given pool, standing in
+     * for the server's bounded async thread pool. Pass null to go back to tick-driven runs.
+     */
+    public void setAsyncPool(Executor pool) {
+        async.setPool(pool);
+    }
+
+    /**
+     * @return the number of tasks still waiting in the stub schedulers
+     */
+    public int pending() {
+        return queue.size();
+    }
+}
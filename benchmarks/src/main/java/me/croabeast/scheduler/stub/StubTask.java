@@ -0,0 +1,85 @@
+package me.croabeast.scheduler.stub;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+
+import java.util.function.Consumer;
+
+final class StubTask implements ScheduledTask {
+
+    private final Plugin plugin;
+    private final Consumer<ScheduledTask> consumer;
+    private final long period;
+
+    // what the task keeps reachable, like the entity of Folia's entity tasks
+    Object owner;
+    volatile long due;
+    private volatile ExecutionState state = ExecutionState.IDLE;
+
+    StubTask(Plugin plugin, Consumer<ScheduledTask> consumer, long due, long period) {
+        this.plugin = plugin;
+        this.consumer = consumer;
+        this.due = due;
+        this.period = period;
+    }
+
+    /**
+     * Runs the task once.
+     *
+     * @return true if the task must be queued again for its next period
+     */
+    boolean run(long tick) {
+        if (state != ExecutionState.IDLE) return false;
+
+        state = ExecutionState.RUNNING;
+        try {
+            consumer.accept(this);
+        } finally {
+            if (state == ExecutionState.CANCELLED_RUNNING)
+                state = ExecutionState.CANCELLED;
+            else
+                state = period > 0 ? ExecutionState.IDLE : ExecutionState.FINISHED;
+        }
+
+        if (state != ExecutionState.IDLE) return false;
+        due = tick + period;
+        return true;
+    }
+
+    @Override
+    public Plugin getOwningPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public boolean isRepeatingTask() {
+        return period > 0;
+    }
+
+    @Override
+    public CancelledState cancel() {
+        switch (state) {
+            case IDLE:
+                state = ExecutionState.CANCELLED;
+                return CancelledState.CANCELLED_BY_CALLER;
+            case RUNNING:
+                state = ExecutionState.CANCELLED_RUNNING;
+                return period > 0 ? CancelledState.NEXT_RUNS_CANCELLED : CancelledState.RUNNING;
+            case FINISHED:
+                return CancelledState.ALREADY_EXECUTED;
+            default:
+                return CancelledState.CANCELLED_ALREADY;
+        }
+    }
+
+    @Override
+    public ExecutionState getExecutionState() {
+        return state;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        ExecutionState state = this.state;
+        return state == ExecutionState.CANCELLED || state == ExecutionState.CANCELLED_RUNNING;
+    }
+}
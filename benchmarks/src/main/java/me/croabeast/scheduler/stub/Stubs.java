@@ -0,0 +1,110 @@
+package me.croabeast.scheduler.stub;
+
+import lombok.experimental.UtilityClass;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Factory for the in-process Bukkit objects the benchmarks run against.
+ */
+@UtilityClass
+public class Stubs {
+
+    private final Logger LOGGER = Logger.getLogger("GlobalScheduler-benchmarks");
+
+    Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        if (type == double.class) return 0D;
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        return 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(Stubs.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    /**
+     * @return a plugin that reports itself as enabled under the given name
+     */
+    public Plugin plugin(String name) {
+        return proxy(Plugin.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName": return name;
+                case "isEnabled": return true;
+                case "getLogger": return LOGGER;
+                case "toString": return name;
+                case "hashCode": return System.identityHashCode(proxy);
+                case "equals": return proxy == args[0];
+                default: return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * @return a world with a random id
+     */
+    public World world(String name) {
+        UUID id = UUID.randomUUID();
+        return proxy(World.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getName": case "toString": return name;
+                case "getUID": return id;
+                case "hashCode": return id.hashCode();
+                case "equals": return proxy == args[0];
+                default: return defaultValue(method.getReturnType());
+            }
+        });
+    }
+
+    /**
+     * @return a location at the center of the given chunk
+     */
+    public Location location(World world, int chunkX, int chunkZ) {
+        return new Location(world, (chunkX << 4) + 8, 64, (chunkZ << 4) + 8);
+    }
+
+    /**
+     * @return a live entity at the given location whose scheduler is backed by the stub server
+     */
+    public Entity entity(Location location) {
+        UUID id = UUID.randomUUID();
+        StubEntityScheduler scheduler = new StubEntityScheduler(StubServer.get().queue);
+
+        Entity entity = proxy(Entity.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getScheduler": return scheduler;
+                case "getLocation": return location.clone();
+                case "getWorld": return location.getWorld();
+                case "getUniqueId": return id;
+                case "isValid": return !scheduler.isRetired();
+                case "toString": return "StubEntity{" + id + '}';
+                case "hashCode": return id.hashCode();
+                case "equals": return proxy == args[0];
+                default: return defaultValue(method.getReturnType());
+            }
+        });
+
+        scheduler.entity = entity;
+        return entity;
+    }
+
+    /**
+     * Removes an entity created by {@link #entity(Location)}, retiring the tasks of its scheduler.
+     */
+    public void remove(Entity entity) {
+        ((StubEntityScheduler) entity.getScheduler()).retire();
+    }
+}
@@ -0,0 +1,54 @@
+package me.croabeast.scheduler.stub;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A tick-driven task queue shared by every stub scheduler. Nothing runs
+ * until {@link #tick()} is called, which keeps the benchmarks deterministic.
+ */
+final class TaskQueue {
+
+    private final Queue<StubTask> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong currentTick = new AtomicLong();
+
+    StubTask submit(Plugin plugin, Consumer<ScheduledTask> consumer, long delay, long period) {
+        StubTask task = new StubTask(plugin, consumer, currentTick.get() + Math.max(delay, 1L), period);
+        pending.add(task);
+        size.incrementAndGet();
+        return task;
+    }
+
+    void cancel(Plugin plugin) {
+        for (StubTask task : pending)
+            if (task.getOwningPlugin() == plugin) task.cancel();
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    void tick() {
+        long tick = currentTick.incrementAndGet();
+
+        for (int i = 0, n = size.get(); i < n; i++) {
+            StubTask task = pending.poll();
+            if (task == null) break;
+            size.decrementAndGet();
+
+            if (task.isCancelled()) continue;
+
+            if (task.due > tick || task.run(tick)) {
+                pending.add(task);
+                size.incrementAndGet();
+            }
+        }
+    }
+}
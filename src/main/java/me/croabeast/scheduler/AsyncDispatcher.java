@@ -0,0 +1,289 @@
+package me.croabeast.scheduler;
+
+import lombok.Getter;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+
+/**
+ * Library-side async tasks of a scheduler.
+ * <p>
+ * Delayed and repeating async tasks wait in the shared {@link TimingWheel} and are only handed
+ * to an executor when due: the server's async pool by default, or a fresh virtual thread when
+ * virtual threads are enabled. Task ids are negative so they never collide with the ids given
+ * out by the server schedulers.
+ * <p>
+ * Tasks scheduled in real time units wait in a shared timer thread instead, which only keeps
+ * the deadline and hands the run to the same executors, so they aren't quantized to ticks. On
+ * servers whose async pool waits for the next tick to start a task, they run on a cached pool
+ * of the library.
+ */
+final class AsyncDispatcher {
+
+    private static final Executor VIRTUAL_EXECUTOR = createVirtualExecutor();
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private static final AtomicIntegerFieldUpdater<AsyncTask> RUNNING =
+            AtomicIntegerFieldUpdater.newUpdater(AsyncTask.class, "running");
+
+    private final TaskRegistry<AsyncTask> tasks = new TaskRegistry<>();
+    private final AtomicInteger ids = new AtomicInteger(-1);
+
+    private final SchedulerMetrics metrics;
+    private final BiConsumer<Plugin, Runnable> platform;
+    private final boolean tickBound;
+    @Getter
+    private volatile boolean virtualThreads;
+
+    /**
+     * @param metrics  the metrics of the owning scheduler
+     * @param platform  runs a task right away on the server's async pool
+     * @param tickBound whether the server's async pool only starts tasks on the next tick, in which
+     *                  case tasks scheduled in real time units run on a pool of the library instead
+     */
+    AsyncDispatcher(SchedulerMetrics metrics, BiConsumer<Plugin, Runnable> platform, boolean tickBound) {
+        this.metrics = metrics;
+        this.platform = platform;
+        this.tickBound = tickBound;
+    }
+
+    private static Executor createVirtualExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "GlobalScheduler-RealTime");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // like the wheel, an idle timer lets its thread go instead of pinning the class loader
+        timer.setKeepAliveTime(30, TimeUnit.SECONDS);
+        timer.allowCoreThreadTimeOut(true);
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    boolean setVirtualThreads(boolean enabled) {
+        return virtualThreads = enabled && VIRTUAL_EXECUTOR != null;
+    }
+
+    private void dispatch(Plugin plugin, Runnable runnable) {
+        dispatch(plugin, runnable, false);
+    }
+
+    private void dispatch(Plugin plugin, Runnable runnable, boolean realTime) {
+        if (virtualThreads)
+            VIRTUAL_EXECUTOR.execute(runnable);
+        else if (realTime && tickBound)
+            RealTimePool.POOL.execute(runnable);
+        else
+            platform.accept(plugin, runnable);
+    }
+
+    RunnableTask run(Plugin plugin, Runnable runnable) {
+        AsyncTask task = new AsyncTask(plugin, runnable, false);
+        task.metrics.submitted(0L, 0L);
+        dispatch(plugin, task);
+        return task;
+    }
+
+    RunnableTask runLater(Plugin plugin, Runnable runnable, long delay) {
+        AsyncTask task = new AsyncTask(plugin, runnable, false);
+        task.metrics.submittedTicks(Math.max(delay, 1L), 0L);
+        task.schedule(Math.max(delay, 1L) * TimingWheel.TICK_NANOS, 0L);
+        return task;
+    }
+
+    RunnableTask runTimer(Plugin plugin, Runnable runnable, long delay, long period) {
+        AsyncTask task = new AsyncTask(plugin, runnable, true);
+        task.metrics.submittedTicks(Math.max(delay, 1L), Math.max(period, 1L));
+        task.schedule(Math.max(delay, 1L) * TimingWheel.TICK_NANOS, Math.max(period, 1L) * TimingWheel.TICK_NANOS);
+        return task;
+    }
+
+    RunnableTask runLater(Plugin plugin, Runnable runnable, long delay, TimeUnit unit) {
+        AsyncTask task = new AsyncTask(plugin, runnable, false);
+        task.metrics.submitted(unit.toNanos(delay), 0L);
+        task.bind(TIMER.schedule(task.expiry(), delay, unit));
+        return task;
+    }
+
+    RunnableTask runAtFixedRate(Plugin plugin, Runnable runnable, long delay, long period, TimeUnit unit) {
+        checkPeriod(period);
+
+        AsyncTask task = new AsyncTask(plugin, runnable, true);
+        task.metrics.submitted(unit.toNanos(delay), unit.toNanos(period));
+        task.bind(TIMER.scheduleAtFixedRate(task.expiry(), delay, period, unit));
+        return task;
+    }
+
+    RunnableTask runWithFixedDelay(Plugin plugin, Runnable runnable, long delay, long period, TimeUnit unit) {
+        checkPeriod(period);
+
+        AsyncTask task = new AsyncTask(plugin, runnable, true);
+        task.metrics.submitted(unit.toNanos(delay), unit.toNanos(period));
+        // the next run is timed from the end of the previous one, so it's only armed once that ends
+        task.fixedDelayNanos = unit.toNanos(period);
+        task.bind(TIMER.schedule(task.expiry(), delay, unit));
+        return task;
+    }
+
+    private static void checkPeriod(long period) {
+        if (period <= 0) throw new IllegalArgumentException("Period must be positive: " + period);
+    }
+
+    boolean cancel(int taskId) {
+        AsyncTask task = tasks.get(taskId);
+        if (task == null) return false;
+
+        task.cancel();
+        return true;
+    }
+
+    void cancelAll(Plugin plugin) {
+        tasks.forEach(t -> {
+            if (t.plugin == plugin) t.cancel();
+        });
+    }
+
+    /**
+     * Created on first use, so servers whose async pool starts tasks right away never start it.
+     */
+    private static final class RealTimePool {
+
+        private static final ExecutorService POOL = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "GlobalScheduler-RealTime-Worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final class AsyncTask extends TimingWheel.Timeout implements RunnableTask, Runnable {
+
+        private final Plugin plugin;
+        private final Runnable runnable;
+        @Getter
+        private final int taskId;
+        @Getter
+        private final boolean repeating;
+        @Getter
+        private final TaskMetrics metrics;
+
+        volatile int running;
+        private volatile boolean cancelled;
+
+        // only set for tasks scheduled in real time units
+        private volatile ScheduledFuture<?> timer;
+        private long fixedDelayNanos;
+        private Runnable expiry;
+
+        private AsyncTask(Plugin plugin, Runnable runnable, boolean repeating) {
+            this.plugin = plugin;
+            this.runnable = runnable;
+            this.repeating = repeating;
+            this.metrics = AsyncDispatcher.this.metrics.track(plugin, runnable, TaskLane.ASYNC);
+            // always negative, so never 0 either
+            this.taskId = ids.decrementAndGet() | Integer.MIN_VALUE;
+            tasks.put(taskId, this);
+        }
+
+        private Runnable expiry() {
+            return expiry = this::expire;
+        }
+
+        @Override
+        void expire() {
+            if (cancelled) return;
+
+            // the wheel and the timer outlive plugins, so a disabled plugin's tasks end here
+            if (!plugin.isEnabled()) {
+                cancel();
+                return;
+            }
+
+            // a period that comes up while the previous run is still going is skipped
+            if (running != 0) return;
+
+            try {
+                dispatch(plugin, this, expiry != null);
+            } catch (Throwable t) {
+                cancel();
+                plugin.getLogger().log(Level.WARNING, "Async task " + taskId + " could not be dispatched and was cancelled", t);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+
+            // runs handed to virtual threads or the real-time pool aren't dropped when the plugin is disabled
+            if (!plugin.isEnabled()) {
+                cancel();
+                return;
+            }
+
+            if (!RUNNING.compareAndSet(this, 0, 1)) return;
+
+            try {
+                metrics.run(runnable);
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.WARNING, "Async task " + taskId + " generated an exception", t);
+            } finally {
+                running = 0;
+                if (!repeating) tasks.remove(taskId, this);
+                else if (fixedDelayNanos > 0) rearm();
+            }
+        }
+
+        private void rearm() {
+            if (!cancelled) bind(TIMER.schedule(expiry, fixedDelayNanos, TimeUnit.NANOSECONDS));
+        }
+
+        private void bind(ScheduledFuture<?> timer) {
+            this.timer = timer;
+            // the first expiry may have cancelled the task before its future was known
+            if (cancelled) timer.cancel(false);
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) metrics.cancelled();
+            cancelled = true;
+            tasks.remove(taskId, this);
+            cancelTimeout();
+
+            ScheduledFuture<?> timer = this.timer;
+            if (timer != null) timer.cancel(false);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public Plugin getPlugin() {
+            return plugin;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running != 0;
+        }
+    }
+}
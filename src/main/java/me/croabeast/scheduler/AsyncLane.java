@@ -0,0 +1,244 @@
+package me.croabeast.scheduler;
+
+import lombok.Getter;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A bounded lane in front of the async pool of a scheduler.
+ * <p>
+ * At most {@link #getParallelism()} of its tasks are handed to the pool at once, each as a task of
+ * its own so it keeps its metrics. The rest wait in a queue of the lane of at most
+ * {@link #getCapacity()} tasks, and a submission finding that queue full is handled by the
+ * {@link OverflowPolicy} of the lane. When a backend stalls, work piles up to a known bound instead
+ * of growing the pool's queue until the heap runs out.
+ * <p>
+ * The tasks handed to the pool are regular async tasks of the scheduler, so cancelling them, through
+ * {@link GlobalScheduler#cancelAll()} for instance, also stops the lane. Create a new one afterwards.
+ */
+public final class AsyncLane {
+
+    private final GlobalScheduler scheduler;
+    @Getter
+    private final int parallelism, capacity;
+    @Getter
+    private final OverflowPolicy policy;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    // free room in the queue, taken before adding and given back on polling
+    private final Semaphore room;
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    AsyncLane(GlobalScheduler scheduler, int parallelism, int capacity, OverflowPolicy policy) {
+        if (parallelism <= 0) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        // without room for one task, blocking or dropping the oldest would never make progress
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+
+        this.scheduler = scheduler;
+        this.parallelism = parallelism;
+        this.capacity = capacity;
+        this.policy = Objects.requireNonNull(policy);
+        this.room = new Semaphore(capacity);
+    }
+
+    /**
+     * Submits a task to the lane.
+     *
+     * @param runnable The task to run
+     * @return A future completed once the task ran, or exceptionally if it threw or was rejected
+     */
+    public CompletableFuture<Void> submit(Runnable runnable) {
+        return submit(runnable, new SupplyingRunnable<>(() -> {
+            runnable.run();
+            return null;
+        }));
+    }
+
+    /**
+     * Submits a supplier to the lane.
+     *
+     * @param supplier The supplier to call
+     * @param <T>      The type of the value
+     * @return A future completed with the supplied value, or exceptionally if it threw or was rejected
+     */
+    public <T> CompletableFuture<T> supply(Supplier<? extends T> supplier) {
+        return submit(supplier, SupplyingRunnable.of(supplier));
+    }
+
+    private <T> CompletableFuture<T> submit(Object task, SupplyingRunnable<T> supplying) {
+        Entry entry = new Entry(SchedulerMetrics.labelOf(task), supplying);
+
+        if (tryStart()) {
+            if (!dispatch(entry)) finish();
+            return supplying.future;
+        }
+
+        if (!room.tryAcquire() && !overflow(entry)) return supplying.future;
+
+        queue.add(entry);
+        // every slot may have been given back while the task was being queued
+        pump();
+        return supplying.future;
+    }
+
+    /**
+     * Applies the policy to a task that found the queue full.
+     *
+     * @return true if the task got room in the queue, false if the policy handled it otherwise
+     */
+    private boolean overflow(Entry entry) {
+        rejected.increment();
+
+        switch (policy) {
+            case BLOCK:
+                try {
+                    room.acquire();
+                    return true;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    entry.reject("Interrupted while waiting for room", e);
+                    return false;
+                }
+
+            case DROP_OLDEST:
+                do {
+                    // the room of the dropped task goes to the new one
+                    Entry oldest = queue.poll();
+                    if (oldest != null) {
+                        oldest.reject("Async lane is full, dropped for a newer task", null);
+                        return true;
+                    }
+                } while (!room.tryAcquire());
+                return true;
+
+            case CALLER_RUNS:
+                entry.supplying.run();
+                return false;
+
+            default:
+                entry.reject("Async lane is full", null);
+                return false;
+        }
+    }
+
+    private boolean tryStart() {
+        int count;
+        do {
+            count = running.get();
+            if (count >= parallelism) return false;
+        } while (!running.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    private Entry poll() {
+        Entry entry = queue.poll();
+        if (entry != null) room.release();
+        return entry;
+    }
+
+    /**
+     * @return true if the task was handed to the async pool, false if the scheduler refused it
+     */
+    private boolean dispatch(Entry entry) {
+        try {
+            scheduler.runTaskAsynchronously(entry);
+            return true;
+        } catch (RuntimeException e) {
+            // a cancelled group, or a disabled plugin on Bukkit
+            entry.supplying.future.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    private void pump() {
+        while (!queue.isEmpty() && tryStart()) {
+            Entry entry = poll();
+            if (entry == null || !dispatch(entry)) running.decrementAndGet();
+        }
+    }
+
+    private void finish() {
+        // the slot goes straight to the next waiting task
+        for (Entry next; (next = poll()) != null; )
+            if (dispatch(next)) return;
+
+        running.decrementAndGet();
+        // a task queued between the poll and giving the slot back would wait forever otherwise
+        pump();
+    }
+
+    /**
+     * Removes every waiting task, failing its future with a {@link RejectedExecutionException}.
+     * Tasks already handed to the async pool still run.
+     *
+     * @return The number of tasks removed
+     */
+    public int clear() {
+        int count = 0;
+
+        for (Entry entry; (entry = poll()) != null; count++)
+            entry.reject("Async lane was cleared", null);
+
+        return count;
+    }
+
+    /**
+     * @return The number of tasks waiting in the queue
+     */
+    public int getQueueDepth() {
+        return capacity - room.availablePermits();
+    }
+
+    /**
+     * @return The number of tasks handed to the async pool that didn't finish yet
+     */
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    /**
+     * @return The number of submissions that found the queue full, however the policy handled them
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncLane{running=" + getRunningCount() + '/' + parallelism +
+                ", queued=" + getQueueDepth() + '/' + capacity +
+                ", policy=" + policy + ", rejected=" + getRejectedCount() + '}';
+    }
+
+    private final class Entry extends LabeledRunnable {
+
+        private final SupplyingRunnable<?> supplying;
+
+        private Entry(String label, SupplyingRunnable<?> supplying) {
+            super(label, supplying);
+            this.supplying = supplying;
+        }
+
+        void reject(String reason, Throwable cause) {
+            supplying.future.completeExceptionally(new RejectedExecutionException(reason, cause));
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                finish();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package me.croabeast.scheduler;
+
+import java.util.Collection;
+
+/**
+ * Runs a fixed snapshot of runnables one after another inside a single scheduled task.
+ * <p>
+ * A failing runnable doesn't stop the rest of the batch: the first exception is rethrown
+ * once every runnable had its turn, with any later ones attached as suppressed.
+ */
+final class BatchRunnable implements Runnable {
+
+    private final Runnable[] runnables;
+
+    BatchRunnable(Collection<? extends Runnable> runnables) {
+        this.runnables = runnables.toArray(new Runnable[0]);
+    }
+
+    @Override
+    public void run() {
+        RuntimeException failure = null;
+
+        for (Runnable runnable : runnables) {
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e;
+                else failure.addSuppressed(e);
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+}
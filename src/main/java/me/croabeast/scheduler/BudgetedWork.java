@@ -0,0 +1,59 @@
+package me.croabeast.scheduler;
+
+import java.util.Iterator;
+
+/**
+ * Drains an iterator of work units from a repeating task, spending at most the
+ * configured amount of nanoseconds per run. Whatever is left carries over to the
+ * next run, and the task cancels itself once the iterator is exhausted.
+ * <p>
+ * At least one unit is processed per run, so a budget smaller than a single unit
+ * still makes progress. A failing unit aborts the remaining work.
+ */
+final class BudgetedWork implements Runnable {
+
+    private final Iterator<? extends Runnable> work;
+    private final long budgetNanos;
+
+    private volatile RunnableTask task;
+    private volatile boolean done;
+
+    BudgetedWork(Iterator<? extends Runnable> work, long budgetNanos) {
+        if (budgetNanos <= 0)
+            throw new IllegalArgumentException("Budget must be positive, got " + budgetNanos);
+
+        this.work = work;
+        this.budgetNanos = budgetNanos;
+    }
+
+    RunnableTask bind(RunnableTask task) {
+        this.task = task;
+        if (done) task.cancel();
+        return task;
+    }
+
+    private void finish() {
+        done = true;
+
+        RunnableTask task = this.task;
+        if (task != null) task.cancel();
+    }
+
+    @Override
+    public void run() {
+        if (done) return;
+
+        long start = System.nanoTime();
+        try {
+            do {
+                if (!work.hasNext()) break;
+                work.next().run();
+            } while (System.nanoTime() - start < budgetNanos);
+        } catch (RuntimeException e) {
+            finish();
+            throw e;
+        }
+
+        if (!work.hasNext()) finish();
+    }
+}
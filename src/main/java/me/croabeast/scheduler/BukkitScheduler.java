@@ -9,12 +9,31 @@ import org.bukkit.entity.Entity;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 final class BukkitScheduler implements GlobalScheduler {
 
     @NotNull
     final Plugin plugin;
 
+    private static final AtomicIntegerFieldUpdater<PreparedTask> PENDING =
+            AtomicIntegerFieldUpdater.newUpdater(PreparedTask.class, "pending");
+
+    private final TaskIndex regions = new TaskIndex(), entities = new TaskIndex();
+    // global prepared tasks, which Bukkit's cancelTasks() would otherwise cancel behind their back
+    private final TaskIndex prepared = new TaskIndex();
+    // indexed tasks by their Bukkit id, so cancel(int) goes through the wrapper and unindexes them
+    private final TaskRegistry<BukkitTask> indexed = new TaskRegistry<>();
+    private final Coalescer coalescer = new Coalescer(this);
+    private final PriorityPump pump = new PriorityPump(this);
+    private final LoadMonitor loadMonitor = new LoadMonitor(this);
+
+    @Getter
+    private final SchedulerMetrics metrics = new SchedulerMetrics();
+    private final AsyncDispatcher asyncDispatcher = new AsyncDispatcher(metrics, (plugin, runnable) -> Bukkit.getScheduler().runTaskAsynchronously(plugin, runnable), true);
+
     @Override
     public boolean isGlobalThread() {
         return Bukkit.getServer().isPrimaryThread();
@@ -32,62 +51,186 @@ final class BukkitScheduler implements GlobalScheduler {
 
     @Override
     public RunnableTask runTask(Runnable runnable) {
-        return new BukkitTask(Bukkit.getScheduler().runTask(plugin, runnable));
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.GLOBAL, false);
+        task.metrics.submittedTicks(1L, 0L);
+        return task.bind(Bukkit.getScheduler().runTask(plugin, task));
     }
 
     @Override
     public RunnableTask runTaskLater(Runnable runnable, long delay) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskLater(plugin, runnable, delay));
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.GLOBAL, false);
+        task.metrics.submittedTicks(Math.max(delay, 1L), 0L);
+        return task.bind(Bukkit.getScheduler().runTaskLater(plugin, task, delay));
     }
 
     @Override
     public RunnableTask runTaskTimer(Runnable runnable, long delay, long period) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskTimer(plugin, runnable, delay, period), true);
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.GLOBAL, true);
+        task.metrics.submittedTicks(Math.max(delay, 1L), period);
+        return task.bind(Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period));
     }
 
     @Override
     public RunnableTask runTask(Plugin plugin, Runnable runnable) {
-        return new BukkitTask(Bukkit.getScheduler().runTask(plugin, runnable));
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.GLOBAL, false);
+        task.metrics.submittedTicks(1L, 0L);
+        return task.bind(Bukkit.getScheduler().runTask(plugin, task));
     }
 
     @Override
     public RunnableTask runTaskLater(Plugin plugin, Runnable runnable, long delay) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskLater(plugin, runnable, delay));
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.GLOBAL, false);
+        task.metrics.submittedTicks(Math.max(delay, 1L), 0L);
+        return task.bind(Bukkit.getScheduler().runTaskLater(plugin, task, delay));
     }
 
     @Override
     public RunnableTask runTaskTimer(Plugin plugin, Runnable runnable, long delay, long period) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskTimer(plugin, runnable, delay, period), true);
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.GLOBAL, true);
+        task.metrics.submittedTicks(Math.max(delay, 1L), period);
+        return task.bind(Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period));
+    }
+
+    @Override
+    public RunnableTask runTask(Location location, Runnable runnable) {
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.REGION, false).index(regions, TaskIndex.keyOf(location));
+        task.metrics.submittedTicks(1L, 0L);
+        return task.bind(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Location location, Runnable runnable, long delay) {
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.REGION, false).index(regions, TaskIndex.keyOf(location));
+        task.metrics.submittedTicks(Math.max(delay, 1L), 0L);
+        return task.bind(Bukkit.getScheduler().runTaskLater(plugin, task, delay));
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Location location, Runnable runnable, long delay, long period) {
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.REGION, true).index(regions, TaskIndex.keyOf(location));
+        task.metrics.submittedTicks(Math.max(delay, 1L), period);
+        return task.bind(Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period));
+    }
+
+    @Override
+    public RunnableTask runTask(Entity entity, Runnable runnable) {
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.ENTITY, false).index(entities, TaskIndex.keyOf(entity));
+        task.metrics.submittedTicks(1L, 0L);
+        return task.bind(Bukkit.getScheduler().runTask(plugin, task));
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Entity entity, Runnable runnable, long delay) {
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.ENTITY, false).index(entities, TaskIndex.keyOf(entity));
+        task.metrics.submittedTicks(Math.max(delay, 1L), 0L);
+        return task.bind(Bukkit.getScheduler().runTaskLater(plugin, task, delay));
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Entity entity, Runnable runnable, long delay, long period) {
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.ENTITY, true).index(entities, TaskIndex.keyOf(entity));
+        task.metrics.submittedTicks(Math.max(delay, 1L), period);
+        return task.bind(Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period));
+    }
+
+    @Override
+    public boolean debounce(Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(null, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Location location, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(location, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Entity entity, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(entity, key, runnable, delay);
+    }
+
+    @Override
+    public boolean throttle(Object key, Runnable runnable, long period) {
+        return coalescer.throttle(null, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Location location, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(location, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Entity entity, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(entity, key, runnable, period);
+    }
+
+    @Override
+    public ReusableTask prepare(Runnable runnable) {
+        PreparedTask task = new PreparedTask(runnable, TaskLane.GLOBAL);
+        task.index(prepared, plugin);
+        return task;
+    }
+
+    @Override
+    public ReusableTask prepare(Location location, Runnable runnable) {
+        PreparedTask task = new PreparedTask(runnable, TaskLane.REGION);
+        task.index(regions, TaskIndex.keyOf(location));
+        return task;
+    }
+
+    @Override
+    public ReusableTask prepare(Entity entity, Runnable runnable) {
+        PreparedTask task = new PreparedTask(runnable, TaskLane.ENTITY);
+        task.index(entities, TaskIndex.keyOf(entity));
+        return task;
     }
 
     @Override
     public RunnableTask runTaskAsynchronously(Runnable runnable) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskAsynchronously(plugin, runnable));
+        return runTaskAsynchronously(plugin, runnable);
     }
 
     @Override
     public RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, runnable, delay));
+        return runTaskLaterAsynchronously(plugin, runnable, delay);
     }
 
     @Override
     public RunnableTask runTaskTimerAsynchronously(Runnable runnable, long delay, long period) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, runnable, delay, period), true);
+        return runTaskTimerAsynchronously(plugin, runnable, delay, period);
+    }
+
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay, TimeUnit unit) {
+        return asyncDispatcher.runLater(plugin, runnable, delay, unit);
+    }
+
+    @Override
+    public RunnableTask runTaskAtFixedRateAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        return asyncDispatcher.runAtFixedRate(plugin, runnable, delay, period, unit);
+    }
+
+    @Override
+    public RunnableTask runTaskWithFixedDelayAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        return asyncDispatcher.runWithFixedDelay(plugin, runnable, delay, period, unit);
     }
 
     @Override
     public RunnableTask runTaskAsynchronously(Plugin plugin, Runnable runnable) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskAsynchronously(plugin, runnable));
+        if (asyncDispatcher.isVirtualThreads()) return asyncDispatcher.run(plugin, runnable);
+
+        BukkitTask task = new BukkitTask(plugin, runnable, TaskLane.ASYNC, false);
+        task.metrics.submitted(0L, 0L);
+        return task.bind(Bukkit.getScheduler().runTaskAsynchronously(plugin, task));
     }
 
     @Override
     public RunnableTask runTaskLaterAsynchronously(Plugin plugin, Runnable runnable, long delay) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, runnable, delay));
+        return asyncDispatcher.runLater(plugin, runnable, delay);
     }
 
     @Override
     public RunnableTask runTaskTimerAsynchronously(Plugin plugin, Runnable runnable, long delay, long period) {
-        return new BukkitTask(Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, runnable, delay, period), true);
+        return asyncDispatcher.runTimer(plugin, runnable, delay, period);
     }
 
     @Override
@@ -95,9 +238,48 @@ final class BukkitScheduler implements GlobalScheduler {
         Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, runnable);
     }
 
+    @Override
+    public void execute(TaskPriority priority, Runnable runnable) {
+        pump.execute(priority, runnable);
+    }
+
+    @Override
+    public void setPriorityBudget(long budgetNanos) {
+        pump.setBudget(budgetNanos);
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return loadMonitor.getLoadFactor();
+    }
+
+    @Override
+    public boolean setVirtualThreads(boolean enabled) {
+        return asyncDispatcher.setVirtualThreads(enabled);
+    }
+
+    @Override
+    public boolean isVirtualThreads() {
+        return asyncDispatcher.isVirtualThreads();
+    }
+
     @Override
     public void cancel(int taskId) {
-        Bukkit.getScheduler().cancelTask(taskId);
+        if (asyncDispatcher.cancel(taskId)) return;
+
+        BukkitTask task = indexed.remove(taskId);
+        if (task != null) task.cancel();
+        else Bukkit.getScheduler().cancelTask(taskId);
+    }
+
+    @Override
+    public void cancel(Location location) {
+        regions.cancel(TaskIndex.keyOf(location));
+    }
+
+    @Override
+    public void cancel(Entity entity) {
+        entities.cancel(TaskIndex.keyOf(entity));
     }
 
     @Override
@@ -107,7 +289,12 @@ final class BukkitScheduler implements GlobalScheduler {
 
     @Override
     public void cancelAll(Plugin plugin) {
+        if (plugin == this.plugin) coalescer.clear();
         Bukkit.getScheduler().cancelTasks(plugin);
+        asyncDispatcher.cancelAll(plugin);
+        regions.cancelAll(plugin);
+        entities.cancelAll(plugin);
+        prepared.cancelAll(plugin);
     }
 
     @Override
@@ -115,19 +302,60 @@ final class BukkitScheduler implements GlobalScheduler {
         return "BukkitScheduler{plugin=" + plugin + '}';
     }
 
-    private static final class BukkitTask implements RunnableTask {
+    private class BukkitTask implements RunnableTask, Runnable {
 
-        org.bukkit.scheduler.BukkitTask task;
+        final Plugin plugin;
+        final Runnable runnable;
+        @Getter
+        private final boolean repeating;
         @Getter
-        boolean repeating;
+        final TaskMetrics metrics;
 
-        public BukkitTask(org.bukkit.scheduler.BukkitTask task, boolean repeating) {
-            this.task = task;
+        volatile org.bukkit.scheduler.BukkitTask task;
+        volatile boolean released;
+        TaskIndex index;
+        Object key;
+
+        private BukkitTask(Plugin plugin, Runnable runnable, TaskLane lane, boolean repeating) {
+            this.plugin = plugin;
+            this.runnable = runnable;
             this.repeating = repeating;
+            this.metrics = BukkitScheduler.this.metrics.track(plugin, runnable, lane);
+        }
+
+        BukkitTask index(TaskIndex index, Object key) {
+            this.index = index;
+            this.key = key;
+            index.add(key, this);
+            return this;
+        }
+
+        private BukkitTask bind(org.bukkit.scheduler.BukkitTask task) {
+            this.task = task;
+            if (index == null) return this;
+
+            indexed.put(task.getTaskId(), this);
+            // it may have finished, or been cancelled, before the scheduler returned
+            if (released) indexed.remove(task.getTaskId(), this);
+            return this;
+        }
+
+        void release() {
+            released = true;
+            if (index == null) return;
+
+            index.remove(key, this);
+            org.bukkit.scheduler.BukkitTask task = this.task;
+            if (task != null) indexed.remove(task.getTaskId(), this);
         }
 
-        public BukkitTask(org.bukkit.scheduler.BukkitTask task) {
-            this(task, false);
+        @Override
+        public void run() {
+            try {
+                metrics.run(runnable);
+            } finally {
+                if (!repeating) release();
+            }
         }
 
         @Override
@@ -137,17 +365,20 @@ final class BukkitScheduler implements GlobalScheduler {
 
         @Override
         public void cancel() {
-            task.cancel();
+            if (!isCancelled()) metrics.cancelled();
+            release();
+            if (task != null) task.cancel();
         }
 
         @Override
         public boolean isCancelled() {
-            return task.isCancelled();
+            // not bound yet while it's being scheduled
+            return task != null && task.isCancelled();
         }
 
         @Override
         public Plugin getPlugin() {
-            return task.getOwner();
+            return plugin;
         }
 
         @Override
@@ -155,4 +386,79 @@ final class BukkitScheduler implements GlobalScheduler {
             return Bukkit.getServer().getScheduler().isCurrentlyRunning(getTaskId());
         }
     }
+
+    private final class PreparedTask extends BukkitTask implements ReusableTask {
+
+        volatile int pending;
+        private volatile boolean cancelled;
+
+        private PreparedTask(Runnable runnable, TaskLane lane) {
+            super(BukkitScheduler.this.plugin, runnable, lane, false);
+        }
+
+        @Override
+        public boolean schedule(long delay) {
+            if (isCancelled()) {
+                // cancelled behind its back, latched here so it's only reported once
+                if (!cancelled) cancel();
+                return false;
+            }
+
+            if (!PENDING.compareAndSet(this, 0, 1)) return false;
+            metrics.submittedTicks(Math.max(delay, 1L), 0L);
+
+            org.bukkit.scheduler.BukkitTask last = task;
+            org.bukkit.scheduler.BukkitTask task = delay <= 0 ?
+                    Bukkit.getScheduler().runTask(plugin, this) :
+                    Bukkit.getScheduler().runTaskLater(plugin, this, delay);
+            this.task = task;
+
+            // only the id of its latest run stays mapped, as a Folia prepared task keeps one id for life
+            if (last != null) indexed.remove(last.getTaskId(), this);
+            indexed.put(task.getTaskId(), this);
+            if (cancelled) indexed.remove(task.getTaskId(), this);
+            return true;
+        }
+
+        @Override
+        public boolean isPending() {
+            return pending != 0;
+        }
+
+        @Override
+        public void run() {
+            // cleared first, so the task can schedule itself again while it runs
+            pending = 0;
+            metrics.run(runnable);
+        }
+
+        @Override
+        public int getTaskId() {
+            org.bukkit.scheduler.BukkitTask task = this.task;
+            return task == null ? -1 : task.getTaskId();
+        }
+
+        @Override
+        public void cancel() {
+            // reported here, super only reports tasks that aren't cancelled yet
+            if (!cancelled) metrics.cancelled();
+            cancelled = true;
+            pending = 0;
+            super.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            if (cancelled) return true;
+
+            // a pending run cancelled through cancel(int) or Bukkit's own scheduler never clears its flag
+            org.bukkit.scheduler.BukkitTask task = this.task;
+            return pending != 0 && task != null && task.isCancelled();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return task != null && super.isRunning();
+        }
+    }
 }
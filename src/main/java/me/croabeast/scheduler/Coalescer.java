@@ -0,0 +1,146 @@
+package me.croabeast.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pending debounced and throttled executions of a scheduler, one per key.
+ * <p>
+ * A request for a key that already has a pending execution only swaps the runnable and sets a flag
+ * on its entry, so bursts of requests cost a map lookup and an uncontended lock each. The map is
+ * only written when an entry starts or finishes.
+ */
+@RequiredArgsConstructor
+final class Coalescer {
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final GlobalScheduler scheduler;
+
+    /**
+     * @param target null for the global lane, or the location or entity to run at
+     * @return true if a new execution was scheduled, false if the request joined a pending one
+     */
+    boolean debounce(Object target, Object key, Runnable runnable, long delay) {
+        return request(target, key, runnable, Math.max(delay, 1L), false);
+    }
+
+    boolean throttle(Object target, Object key, Runnable runnable, long period) {
+        return request(target, key, runnable, Math.max(period, 1L), true);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private boolean request(Object target, Object key, Runnable runnable, long ticks, boolean throttle) {
+        while (true) {
+            Entry entry = entries.get(key);
+
+            if (entry == null) {
+                entry = new Entry(target, key, runnable, ticks, throttle);
+                if (entries.putIfAbsent(key, entry) != null) continue;
+
+                // a throttled key runs on the next tick and then at most once per period
+                entry.schedule(throttle ? 0L : ticks);
+                return true;
+            }
+
+            if (entry.offer(runnable)) return false;
+            entries.remove(key, entry);
+        }
+    }
+
+    private final class Entry implements Runnable {
+
+        // entities are only weakly held, their scheduled task keeps them while it's pending
+        private final Object target, key;
+        private final long ticks;
+        private final boolean throttle;
+        private final Runnable labeled, retire = this::retire;
+
+        private Runnable runnable;
+        private boolean pending, done;
+        private volatile RunnableTask task;
+
+        private Entry(Object target, Object key, Runnable runnable, long ticks, boolean throttle) {
+            this.target = target instanceof Entity ? new WeakReference<>((Entity) target) : target;
+            this.key = key;
+            this.runnable = runnable;
+            this.ticks = ticks;
+            this.throttle = throttle;
+            this.pending = throttle;
+            this.labeled = GlobalScheduler.labeled(SchedulerMetrics.labelOf(runnable), this);
+        }
+
+        private void schedule(long delay) {
+            if (target instanceof Location)
+                task = scheduler.runTaskLater((Location) target, labeled, delay);
+            else if (target instanceof WeakReference) {
+                Entity entity = (Entity) ((WeakReference<?>) target).get();
+                if (entity == null) {
+                    retire();
+                    return;
+                }
+                task = scheduler.runTaskLater(entity, labeled, retire, delay);
+            } else
+                task = scheduler.runTaskLater(labeled, delay);
+        }
+
+        /**
+         * Called when the entity is removed, so the entry leaves the map right away
+         * instead of waiting for the next request on its key.
+         */
+        private void retire() {
+            synchronized (this) {
+                done = true;
+            }
+            entries.remove(key, this);
+        }
+
+        private synchronized boolean offer(Runnable runnable) {
+            // the scheduled task was cancelled or its entity retired, so it will never finish the entry
+            RunnableTask task = this.task;
+            if (task != null && task.isCancelled()) done = true;
+            if (done) return false;
+
+            this.runnable = runnable;
+            pending = true;
+            return true;
+        }
+
+        @Override
+        public void run() {
+            Runnable runnable;
+            boolean again;
+
+            synchronized (this) {
+                runnable = this.runnable;
+                again = pending;
+                pending = false;
+                if (!again) done = true;
+            }
+
+            // debounced keys run after a window without requests, throttled keys stop after one
+            if (!again) {
+                entries.remove(key, this);
+                if (!throttle) runnable.run();
+                return;
+            }
+
+            if (!throttle) {
+                schedule(ticks);
+                return;
+            }
+
+            try {
+                runnable.run();
+            } finally {
+                schedule(ticks);
+            }
+        }
+    }
+}
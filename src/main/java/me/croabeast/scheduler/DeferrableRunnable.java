@@ -0,0 +1,48 @@
+package me.croabeast.scheduler;
+
+/**
+ * Runs a timer task less often while the thread running it lags behind.
+ * <p>
+ * Every invocation measures the time since the previous one against the expected period, which
+ * on Folia reflects the ticking of the very region that owns the task. While the moving average
+ * of that ratio stays above {@link #THRESHOLD}, only one in every {@code ceil(load)} invocations
+ * runs, up to one in {@link #MAX_STRETCH}.
+ */
+final class DeferrableRunnable implements Runnable {
+
+    static final double THRESHOLD = 1.2;
+    static final int MAX_STRETCH = 8;
+
+    private final Runnable runnable;
+    private final long expectedNanos;
+
+    // a timer never runs twice at once, so plain fields are enough
+    private long lastNanos;
+    private double load = 1.0;
+    private int skipped;
+
+    DeferrableRunnable(Runnable runnable, long period) {
+        this.runnable = runnable;
+        this.expectedNanos = Math.max(period, 1L) * TimingWheel.TICK_NANOS;
+    }
+
+    /**
+     * @return The deferrable runnable, reported under the label of the wrapped one
+     */
+    static Runnable of(Runnable runnable, long period) {
+        return GlobalScheduler.labeled(SchedulerMetrics.labelOf(runnable), new DeferrableRunnable(runnable, period));
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        if (lastNanos != 0L) load = LoadMonitor.sample(load, now - lastNanos, expectedNanos);
+        lastNanos = now;
+
+        int stretch = load < THRESHOLD ? 1 : (int) Math.min(MAX_STRETCH, Math.ceil(load));
+        if (++skipped < stretch) return;
+
+        skipped = 0;
+        runnable.run();
+    }
+}
@@ -0,0 +1,81 @@
+package me.croabeast.scheduler;
+
+import org.bukkit.entity.Entity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Applies an action to every entity of a collection. Entities removed before their turn are skipped.
+ * <p>
+ * On regionized servers the entities are sharded by the 16x16 chunk section they were last seen
+ * in, and each shard runs as one task on the scheduler of its first entity, so it follows that
+ * entity across regions. Positions read off the owning thread are only a hint, so every entity
+ * is checked for ownership and the ones the region doesn't own are re-dispatched on their own
+ * schedulers. If the first entity is removed before the shard runs, the whole shard is.
+ */
+final class EntityBatch extends ForEachBatch<Entity> {
+
+    EntityBatch(GlobalScheduler scheduler, Consumer<? super Entity> action) {
+        super(scheduler, action);
+    }
+
+    @Override
+    void apply(Entity entity) {
+        if (entity.isValid()) super.apply(entity);
+    }
+
+    /**
+     * Runs the entities on the regions owning them, one task per shard.
+     */
+    CompletableFuture<Void> runByRegion(Collection<? extends Entity> entities) {
+        Map<Object, List<Entity>> shards = group(entities, e -> TaskIndex.keyOf(e.getLocation(), 8));
+        if (shards.isEmpty()) {
+            future.complete(null);
+            return future;
+        }
+
+        remaining.set(shards.size());
+        shards.values().forEach(this::dispatch);
+        return future;
+    }
+
+    private void dispatch(List<Entity> shard) {
+        Entity first = shard.get(0);
+
+        scheduler.execute(first, () -> {
+            List<Entity> lost = null;
+
+            for (Entity entity : shard) {
+                if (scheduler.isEntityThread(entity)) {
+                    apply(entity);
+                    continue;
+                }
+
+                if (lost == null) lost = new ArrayList<>();
+                lost.add(entity);
+            }
+
+            if (lost != null) redispatch(lost);
+            finish();
+        }, () -> {
+            // the rest of the shard can still be alive elsewhere
+            if (shard.size() > 1) redispatch(shard.subList(1, shard.size()));
+            finish();
+        });
+    }
+
+    private void redispatch(List<Entity> entities) {
+        remaining.addAndGet(entities.size());
+
+        for (Entity entity : entities)
+            scheduler.execute(entity, () -> {
+                apply(entity);
+                finish();
+            }, this::finish);
+    }
+}
@@ -12,15 +12,30 @@ import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.plugin.Plugin;
 
-import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
 
 @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
 class FoliaScheduler implements GlobalScheduler {
 
-    private final ConcurrentHashMap<Integer, FoliaTask> tasks = new ConcurrentHashMap<>();
-    private final Random random = new Random();
+    private static final AtomicIntegerFieldUpdater<PreparedTask> PENDING =
+            AtomicIntegerFieldUpdater.newUpdater(PreparedTask.class, "pending");
+
+    private final TaskRegistry<FoliaTask> tasks = new TaskRegistry<>();
+    private final TaskIndex regions = new TaskIndex(), entities = new TaskIndex();
+    private final Coalescer coalescer = new Coalescer(this);
+    private final PriorityPump pump = new PriorityPump(this);
+    private final LoadMonitor loadMonitor = new LoadMonitor(this);
+    private final AtomicInteger ids = new AtomicInteger();
+    // entities of idle prepared tasks that were collected, those tasks can't be retired by Folia
+    private final ReferenceQueue<Entity> collected = new ReferenceQueue<>();
 
     private final RegionScheduler regionScheduler = Bukkit.getServer().getRegionScheduler();
     private final GlobalRegionScheduler globalRegionScheduler = Bukkit.getServer().getGlobalRegionScheduler();
@@ -28,17 +43,9 @@ class FoliaScheduler implements GlobalScheduler {
 
     private final Plugin plugin;
 
-    private synchronized int nextId() {
-        int taskId;
-
-        tasks.values().removeIf(t -> t == null || t.isFinished());
-
-        do {
-            taskId = random.nextInt();
-        } while (tasks.containsKey(taskId));
-
-        return taskId;
-    }
+    @Getter
+    private final SchedulerMetrics metrics = new SchedulerMetrics();
+    private final AsyncDispatcher asyncDispatcher = new AsyncDispatcher(metrics, (plugin, runnable) -> asyncScheduler.runNow(plugin, task -> runnable.run()), false);
 
     @Override
     public boolean isGlobalThread() {
@@ -72,18 +79,83 @@ class FoliaScheduler implements GlobalScheduler {
 
     @Override
     public RunnableTask runTask(Plugin plugin, Runnable runnable) {
-        return new FoliaTask(globalRegionScheduler.run(plugin, task -> runnable.run()), nextId());
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.GLOBAL, false);
+        task.metrics.submittedTicks(1L, 0L);
+        return task.bind(globalRegionScheduler.run(plugin, task));
     }
 
     @Override
     public RunnableTask runTaskLater(Plugin plugin, Runnable runnable, long delay) {
         if (delay <= 0) return runTask(runnable);
-        return new FoliaTask(globalRegionScheduler.runDelayed(plugin, task -> runnable.run(), delay), nextId());
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.GLOBAL, false);
+        task.metrics.submittedTicks(delay, 0L);
+        return task.bind(globalRegionScheduler.runDelayed(plugin, task, delay));
     }
 
     @Override
     public RunnableTask runTaskTimer(Plugin plugin, Runnable runnable, long delay, long period) {
-        return new FoliaTask(globalRegionScheduler.runAtFixedRate(plugin, task -> runnable.run(), delay <= 0 ? 1L : delay, period), nextId());
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.GLOBAL, true);
+        task.metrics.submittedTicks(Math.max(delay, 1L), period);
+        return task.bind(globalRegionScheduler.runAtFixedRate(plugin, task, delay <= 0 ? 1L : delay, period));
+    }
+
+    @Override
+    public CompletableFuture<Void> runForEach(Collection<? extends Location> locations, Consumer<? super Location> action) {
+        return new LocationBatch(this, action).runByRegion(locations);
+    }
+
+    @Override
+    public CompletableFuture<Void> parallelForEach(Collection<? extends Entity> entities, Consumer<? super Entity> action) {
+        return new EntityBatch(this, action).runByRegion(entities);
+    }
+
+    @Override
+    public boolean debounce(Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(null, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Location location, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(location, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Entity entity, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(entity, key, runnable, delay);
+    }
+
+    @Override
+    public boolean throttle(Object key, Runnable runnable, long period) {
+        return coalescer.throttle(null, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Location location, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(location, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Entity entity, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(entity, key, runnable, period);
+    }
+
+    @Override
+    public ReusableTask prepare(Runnable runnable) {
+        return new PreparedTask(null, runnable, TaskLane.GLOBAL);
+    }
+
+    @Override
+    public ReusableTask prepare(Location location, Runnable runnable) {
+        PreparedTask task = new PreparedTask(location, runnable, TaskLane.REGION);
+        task.index(regions, TaskIndex.keyOf(location));
+        return task;
+    }
+
+    @Override
+    public ReusableTask prepare(Entity entity, Runnable runnable) {
+        PreparedTask task = new PreparedTask(entity, runnable, TaskLane.ENTITY);
+        task.index(entities, TaskIndex.keyOf(entity));
+        return task;
     }
 
     @Override
@@ -101,51 +173,103 @@ class FoliaScheduler implements GlobalScheduler {
         return runTaskTimerAsynchronously(plugin, runnable, delay, period);
     }
 
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay, TimeUnit unit) {
+        return asyncDispatcher.runLater(plugin, runnable, delay, unit);
+    }
+
+    @Override
+    public RunnableTask runTaskAtFixedRateAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        return asyncDispatcher.runAtFixedRate(plugin, runnable, delay, period, unit);
+    }
+
+    @Override
+    public RunnableTask runTaskWithFixedDelayAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        return asyncDispatcher.runWithFixedDelay(plugin, runnable, delay, period, unit);
+    }
+
     @Override
     public RunnableTask runTaskAsynchronously(Plugin plugin, Runnable runnable) {
-        return new FoliaTask(asyncScheduler.runNow(plugin, task -> runnable.run()), nextId());
+        if (asyncDispatcher.isVirtualThreads()) return asyncDispatcher.run(plugin, runnable);
+
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.ASYNC, false);
+        task.metrics.submitted(0L, 0L);
+        return task.bind(asyncScheduler.runNow(plugin, task));
     }
 
     @Override
     public RunnableTask runTaskLaterAsynchronously(Plugin plugin, Runnable runnable, long delay) {
-        return new FoliaTask(asyncScheduler.runDelayed(plugin, task -> runnable.run(), (delay <= 0 ? 1L : delay) * 50L, TimeUnit.MILLISECONDS), nextId());
+        return asyncDispatcher.runLater(plugin, runnable, delay);
     }
 
     @Override
     public RunnableTask runTaskTimerAsynchronously(Plugin plugin, Runnable runnable, long delay, long period) {
-        return new FoliaTask(asyncScheduler.runAtFixedRate(plugin, task -> runnable.run(), (delay <= 0 ? 1L : delay) * 50, period * 50, TimeUnit.MILLISECONDS), nextId());
+        return asyncDispatcher.runTimer(plugin, runnable, delay, period);
     }
 
     @Override
     public RunnableTask runTask(Location location, Runnable runnable) {
-        return new FoliaTask(regionScheduler.run(plugin, location, task -> runnable.run()), nextId());
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.REGION, false).index(regions, TaskIndex.keyOf(location));
+        task.metrics.submittedTicks(1L, 0L);
+        return task.bind(regionScheduler.run(plugin, location, task));
     }
 
     @Override
     public RunnableTask runTaskLater(Location location, Runnable runnable, long delay) {
-        if (delay <= 0) return runTask(runnable);
-        return new FoliaTask(regionScheduler.runDelayed(plugin, location, task -> runnable.run(), delay), nextId());
+        if (delay <= 0) return runTask(location, runnable);
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.REGION, false).index(regions, TaskIndex.keyOf(location));
+        task.metrics.submittedTicks(delay, 0L);
+        return task.bind(regionScheduler.runDelayed(plugin, location, task, delay));
     }
 
     @Override
     public RunnableTask runTaskTimer(Location location, Runnable runnable, long delay, long period) {
-        return new FoliaTask(regionScheduler.runAtFixedRate(plugin, location, task -> runnable.run(), delay <= 0 ? 1L : delay, period), nextId());
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.REGION, true).index(regions, TaskIndex.keyOf(location));
+        task.metrics.submittedTicks(Math.max(delay, 1L), period);
+        return task.bind(regionScheduler.runAtFixedRate(plugin, location, task, delay <= 0 ? 1L : delay, period));
     }
 
     @Override
     public RunnableTask runTask(Entity entity, Runnable runnable) {
-        return new FoliaTask(entity.getScheduler().run(plugin, task -> runnable.run(), null), nextId());
+        return runTask(entity, runnable, null);
     }
 
     @Override
     public RunnableTask runTaskLater(Entity entity, Runnable runnable, long delay) {
-        if (delay <= 0) return runTask(entity, runnable);
-        return new FoliaTask(entity.getScheduler().runDelayed(plugin, task -> runnable.run(), null, delay), nextId());
+        return runTaskLater(entity, runnable, null, delay);
     }
 
     @Override
     public RunnableTask runTaskTimer(Entity entity, Runnable runnable, long delay, long period) {
-        return new FoliaTask(entity.getScheduler().runAtFixedRate(plugin, task -> runnable.run(), null, delay <= 0 ? 1L : delay, period), nextId());
+        return runTaskTimer(entity, runnable, null, delay, period);
+    }
+
+    @Override
+    public RunnableTask runTask(Entity entity, Runnable runnable, Runnable retired) {
+        FoliaTask task = entityTask(entity, runnable, retired, false);
+        task.metrics.submittedTicks(1L, 0L);
+        return task.bind(entity.getScheduler().run(plugin, task, task::retire));
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Entity entity, Runnable runnable, Runnable retired, long delay) {
+        if (delay <= 0) return runTask(entity, runnable, retired);
+        FoliaTask task = entityTask(entity, runnable, retired, false);
+        task.metrics.submittedTicks(delay, 0L);
+        return task.bind(entity.getScheduler().runDelayed(plugin, task, task::retire, delay));
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Entity entity, Runnable runnable, Runnable retired, long delay, long period) {
+        FoliaTask task = entityTask(entity, runnable, retired, true);
+        task.metrics.submittedTicks(Math.max(delay, 1L), period);
+        return task.bind(entity.getScheduler().runAtFixedRate(plugin, task, task::retire, delay <= 0 ? 1L : delay, period));
+    }
+
+    private FoliaTask entityTask(Entity entity, Runnable runnable, Runnable retired, boolean repeating) {
+        FoliaTask task = new FoliaTask(plugin, runnable, TaskLane.ENTITY, repeating).index(entities, TaskIndex.keyOf(entity));
+        task.onRetired = retired;
+        return task;
     }
 
     @Override
@@ -153,14 +277,47 @@ class FoliaScheduler implements GlobalScheduler {
         globalRegionScheduler.execute(plugin, runnable);
     }
 
+    @Override
+    public void execute(TaskPriority priority, Runnable runnable) {
+        pump.execute(priority, runnable);
+    }
+
+    @Override
+    public void setPriorityBudget(long budgetNanos) {
+        pump.setBudget(budgetNanos);
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return loadMonitor.getLoadFactor();
+    }
+
+    @Override
+    public boolean setVirtualThreads(boolean enabled) {
+        return asyncDispatcher.setVirtualThreads(enabled);
+    }
+
+    @Override
+    public boolean isVirtualThreads() {
+        return asyncDispatcher.isVirtualThreads();
+    }
+
     @Override
     public void cancel(int taskId) {
-        try {
-            tasks.remove(taskId).cancel();
-        } catch (Exception e) {
-            // If the task is not found or already cancelled, we can ignore the exception
-            // This is a common case when tasks are removed from the map after completion
-        }
+        if (asyncDispatcher.cancel(taskId)) return;
+
+        FoliaTask task = tasks.remove(taskId);
+        if (task != null) task.cancel();
+    }
+
+    @Override
+    public void cancel(Location location) {
+        regions.cancel(TaskIndex.keyOf(location));
+    }
+
+    @Override
+    public void cancel(Entity entity) {
+        entities.cancel(TaskIndex.keyOf(entity));
     }
 
     @Override
@@ -173,6 +330,12 @@ class FoliaScheduler implements GlobalScheduler {
         entity.getScheduler().execute(plugin, runnable, null, 1L);
     }
 
+    @Override
+    public void execute(Entity entity, Runnable runnable, Runnable retired) {
+        if (!entity.getScheduler().execute(plugin, runnable, retired, 1L) && retired != null)
+            retired.run();
+    }
+
     @Override
     public void cancelAll() {
         cancelAll(plugin);
@@ -180,8 +343,15 @@ class FoliaScheduler implements GlobalScheduler {
 
     @Override
     public void cancelAll(Plugin plugin) {
+        if (plugin == this.plugin) coalescer.clear();
         globalRegionScheduler.cancelTasks(plugin);
         asyncScheduler.cancelTasks(plugin);
+        asyncDispatcher.cancelAll(plugin);
+
+        // region and entity schedulers have no bulk cancel, their tasks are cancelled one by one
+        tasks.forEach(t -> {
+            if (t.plugin == plugin) t.cancel();
+        });
     }
 
     @Override
@@ -189,34 +359,116 @@ class FoliaScheduler implements GlobalScheduler {
         return "FoliaScheduler{plugin=" + plugin + '}';
     }
 
-    private final class FoliaTask implements RunnableTask {
+    int nextId() {
+        for (Reference<? extends Entity> reference; (reference = collected.poll()) != null; )
+            ((EntityTarget) reference).task.retire();
+
+        // positive and never 0, negative ids belong to the async dispatcher
+        int id;
+        do id = ids.incrementAndGet() & Integer.MAX_VALUE; while (id == 0);
+        return id;
+    }
+
+    private class FoliaTask implements RunnableTask, Consumer<ScheduledTask> {
 
-        private final ScheduledTask task;
+        final Plugin plugin;
+        final Runnable runnable;
         @Getter
         private final int taskId;
+        @Getter
+        private final boolean repeating;
+        @Getter
+        final TaskMetrics metrics;
+
+        // dropped once the task is done, since Folia's entity tasks hold on to their entity
+        volatile ScheduledTask task;
+        volatile boolean retired, cancelled, released;
+        volatile Runnable onRetired;
+
+        private TaskIndex index;
+        private Object key;
+
+        private FoliaTask(Plugin plugin, Runnable runnable, TaskLane lane, boolean repeating) {
+            this.plugin = plugin;
+            this.runnable = runnable;
+            this.repeating = repeating;
+            this.metrics = FoliaScheduler.this.metrics.track(plugin, runnable, lane);
+            this.taskId = nextId();
+            tasks.put(taskId, this);
+        }
+
+        FoliaTask index(TaskIndex index, Object key) {
+            this.index = index;
+            this.key = key;
+            index.add(key, this);
+            return this;
+        }
+
+        private FoliaTask bind(ScheduledTask task) {
+            // entity schedulers return null when the entity is already retired
+            if (task == null) {
+                retire();
+                return this;
+            }
+
+            if (this.task == null) this.task = task;
+            // it may have finished, or its entity retired, before the scheduler returned
+            if (released) this.task = null;
+            return this;
+        }
+
+        void retire() {
+            retired = true;
+            release();
 
-        private FoliaTask(ScheduledTask task, int taskId) {
+            Runnable hook = onRetired;
+            onRetired = null;
+            if (hook != null) hook.run();
+        }
+
+        void release() {
+            released = true;
+            task = null;
+            tasks.remove(taskId, this);
+            if (index != null) index.remove(key, this);
+        }
+
+        @Override
+        public void accept(ScheduledTask task) {
             this.task = task;
-            this.taskId = taskId;
-            tasks.put(taskId, this);
+            try {
+                metrics.run(runnable);
+            } finally {
+                if (!repeating) release();
+            }
         }
 
         @Override
         public void cancel() {
-            task.cancel();
+            if (!cancelled) metrics.cancelled();
+            cancelled = true;
+            onRetired = null;
+
+            ScheduledTask task = this.task;
+            release();
+            if (task != null) task.cancel();
         }
 
         public boolean isCancelled() {
-            return task.isCancelled();
+            ScheduledTask task = this.task;
+            return cancelled || retired || task != null && task.isCancelled();
         }
 
         @Override
         public Plugin getPlugin() {
-            return task.getOwningPlugin();
+            return plugin;
         }
 
         @Override
         public boolean isRunning() {
+            ScheduledTask task = this.task;
+            if (task == null) return false;
+
             switch (task.getExecutionState()) {
                 case RUNNING: case CANCELLED_RUNNING:
                     return true;
@@ -224,14 +476,104 @@ class FoliaScheduler implements GlobalScheduler {
                     return false;
             }
         }
+    }
+
+    private final class PreparedTask extends FoliaTask implements ReusableTask {
+
+        // entities are only weakly held, so an idle task doesn't keep a removed entity around
+        private final Object target;
+        private final Runnable retire = this::retire;
+
+        volatile int pending;
+
+        private PreparedTask(Object target, Runnable runnable, TaskLane lane) {
+            super(FoliaScheduler.this.plugin, runnable, lane, false);
+            this.target = target instanceof Entity ? new EntityTarget((Entity) target, this) : target;
+        }
+
+        @Override
+        public boolean schedule(long delay) {
+            if (cancelled || retired || !PENDING.compareAndSet(this, 0, 1)) return false;
+            metrics.submittedTicks(Math.max(delay, 1L), 0L);
+
+            ScheduledTask task;
+            if (target instanceof Location) {
+                Location location = (Location) target;
+                task = delay <= 0 ?
+                        regionScheduler.run(plugin, location, this) :
+                        regionScheduler.runDelayed(plugin, location, this, delay);
+            } else if (target instanceof EntityTarget) {
+                Entity entity = ((EntityTarget) target).get();
+                if (entity == null) {
+                    retire();
+                    return false;
+                }
+
+                task = delay <= 0 ?
+                        entity.getScheduler().run(plugin, this, retire) :
+                        entity.getScheduler().runDelayed(plugin, this, retire, delay);
+            } else
+                task = delay <= 0 ?
+                        globalRegionScheduler.run(plugin, this) :
+                        globalRegionScheduler.runDelayed(plugin, this, delay);
+
+            if (task == null) {
+                retire();
+                return false;
+            }
+
+            this.task = task;
+            return true;
+        }
+
+        @Override
+        public boolean isPending() {
+            return pending != 0;
+        }
+
+        @Override
+        void retire() {
+            pending = 0;
+            super.retire();
+        }
+
+        @Override
+        public void accept(ScheduledTask task) {
+            if (cancelled) return;
+
+            this.task = task;
+            // cleared first, so the task can schedule itself again while it runs
+            pending = 0;
+            try {
+                metrics.run(runnable);
+            } finally {
+                // an idle task keeps no handle, unless it scheduled itself again meanwhile
+                if (pending == 0 && this.task == task) this.task = null;
+            }
+        }
 
         @Override
-        public boolean isRepeating() {
-            return task.isRepeatingTask();
+        public void cancel() {
+            pending = 0;
+            super.cancel();
         }
 
-        boolean isFinished() {
-            return task.getExecutionState() == ScheduledTask.ExecutionState.FINISHED;
+        @Override
+        public boolean isCancelled() {
+            return cancelled || retired;
+        }
+    }
+
+    /**
+     * The entity of a prepared task, enqueued once collected so the task leaves the registry.
+     */
+    private final class EntityTarget extends WeakReference<Entity> {
+
+        private final PreparedTask task;
+
+        private EntityTarget(Entity entity, PreparedTask task) {
+            super(entity, collected);
+            this.task = task;
         }
     }
 }
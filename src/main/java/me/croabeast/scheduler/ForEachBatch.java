@@ -0,0 +1,98 @@
+package me.croabeast.scheduler;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies an action to every element of a collection and completes a future once all of them
+ * were visited, with the first failure if any. A failing element doesn't prevent the others.
+ * <p>
+ * Subclasses add how elements are spread over the regions of a regionized server, while servers
+ * with a single main thread visit them from one task spending at most {@link #BUDGET_NANOS} per tick.
+ */
+abstract class ForEachBatch<T> {
+
+    static final long BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final AtomicInteger remaining = new AtomicInteger();
+
+    final GlobalScheduler scheduler;
+    private final Consumer<? super T> action;
+
+    private volatile Throwable failure;
+
+    ForEachBatch(GlobalScheduler scheduler, Consumer<? super T> action) {
+        this.scheduler = scheduler;
+        this.action = action;
+    }
+
+    void apply(T element) {
+        try {
+            action.accept(element);
+        } catch (Throwable t) {
+            synchronized (this) {
+                if (failure == null) failure = t;
+                else failure.addSuppressed(t);
+            }
+        }
+    }
+
+    void complete() {
+        Throwable failure = this.failure;
+        if (failure == null)
+            future.complete(null);
+        else
+            future.completeExceptionally(failure);
+    }
+
+    /**
+     * Counts down a task of the batch, completing it after the last one.
+     */
+    void finish() {
+        if (remaining.decrementAndGet() == 0) complete();
+    }
+
+    /**
+     * Runs the elements on the main thread, spending at most {@link #BUDGET_NANOS} per tick.
+     */
+    CompletableFuture<Void> runBudgeted(Collection<? extends T> elements) {
+        Iterator<? extends T> it = new ArrayList<>(elements).iterator();
+
+        BudgetedWork work = new BudgetedWork(new Iterator<Runnable>() {
+            @Override
+            public boolean hasNext() {
+                if (it.hasNext()) return true;
+
+                complete();
+                return false;
+            }
+
+            @Override
+            public Runnable next() {
+                T element = it.next();
+                return () -> apply(element);
+            }
+        }, BUDGET_NANOS);
+
+        work.bind(scheduler.runTaskTimer(work, 1L, 1L));
+        return future;
+    }
+
+    static <E> Map<Object, List<E>> group(Collection<? extends E> elements, Function<? super E, Object> key) {
+        Map<Object, List<E>> groups = new LinkedHashMap<>();
+        for (E element : elements)
+            groups.computeIfAbsent(key.apply(element), k -> new ArrayList<>()).add(element);
+
+        return groups;
+    }
+}
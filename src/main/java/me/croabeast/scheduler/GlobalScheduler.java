@@ -4,13 +4,19 @@ import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Scheduler interface for scheduling tasks in a Bukkit/Spigot/Paper/Folia server.
@@ -212,6 +218,407 @@ public interface GlobalScheduler {
         return runTaskTimer(runnable, delay, period);
     }
 
+    /**
+     * <b>Folia & Paper</b>: Same as {@link #runTask(Entity, Runnable)}, but if the entity is removed
+     * before the task runs, the retired callback is called instead and the task is released right away
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runTask(Entity, Runnable)}, the retired callback is never called
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param runnable The task to execute
+     * @param retired  The callback to run if the entity is removed first, may be null
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTask(Entity entity, Runnable runnable, Runnable retired) {
+        return runTask(entity, runnable);
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Same as {@link #runTaskLater(Entity, Runnable, long)}, but if the entity is
+     * removed before the task runs, the retired callback is called instead and the task is released right away
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runTaskLater(Entity, Runnable, long)}, the retired callback is never called
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param runnable The task to execute
+     * @param retired  The callback to run if the entity is removed first, may be null
+     * @param delay    The delay, in ticks.
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskLater(Entity entity, Runnable runnable, Runnable retired, long delay) {
+        return runTaskLater(entity, runnable, delay);
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Same as {@link #runTaskTimer(Entity, Runnable, long, long)}, but once the entity
+     * is removed, the retired callback is called and the task is released right away
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runTaskTimer(Entity, Runnable, long, long)}, the retired callback is never called
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param runnable The task to execute
+     * @param retired  The callback to run once the entity is removed, may be null
+     * @param delay    The initial delay, in ticks.
+     * @param period   The period, in ticks.
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskTimer(Entity entity, Runnable runnable, Runnable retired, long delay, long period) {
+        return runTaskTimer(entity, runnable, delay, period);
+    }
+
+    /**
+     * Creates a task that isn't scheduled yet, to run it any number of times through
+     * {@link ReusableTask#schedule(long)} without allocating a new handle each time <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     *
+     * @param runnable The task to execute on each run
+     * @return The reusable task
+     */
+    ReusableTask prepare(Runnable runnable);
+
+    /**
+     * <b>Folia & Paper</b>: Creates a reusable task that runs on the region which owns the location
+     * <p>
+     * <b>Bukkit</b>: same as {@link #prepare(Runnable)}
+     *
+     * @param location The location which the region executing should own
+     * @param runnable The task to execute on each run
+     * @return The reusable task
+     */
+    ReusableTask prepare(Location location, Runnable runnable);
+
+    /**
+     * <b>Folia & Paper</b>: Creates a reusable task that runs on the region which owns the entity.
+     * The task is cancelled once the entity is removed
+     * <p>
+     * <b>Bukkit</b>: same as {@link #prepare(Runnable)}
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param runnable The task to execute on each run
+     * @return The reusable task
+     */
+    ReusableTask prepare(Entity entity, Runnable runnable);
+
+    /**
+     * Creates a sink that applies the values pushed to it from any thread with one task per tick <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     * <p>
+     * With a positive budget the task stops applying values once the budget is spent, and carries the
+     * rest over to the next tick.
+     *
+     * @param consumer    The consumer applying each value
+     * @param budgetNanos The per-tick budget, in nanoseconds, or 0 to apply every waiting value
+     * @param <T>         The type of the values
+     * @return The sink
+     */
+    default <T> SyncSink<T> createSink(Consumer<? super T> consumer, long budgetNanos) {
+        return new SyncSink<>(sink -> prepare(sink), consumer, budgetNanos);
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Creates a sink that applies its values on the region which owns the location
+     * <p>
+     * <b>Bukkit</b>: same as {@link #createSink(Consumer, long)}
+     *
+     * @param location    The location which the region executing should own
+     * @param consumer    The consumer applying each value
+     * @param budgetNanos The per-tick budget, in nanoseconds, or 0 to apply every waiting value
+     * @param <T>         The type of the values
+     * @return The sink
+     */
+    default <T> SyncSink<T> createSink(Location location, Consumer<? super T> consumer, long budgetNanos) {
+        return new SyncSink<>(sink -> prepare(location, sink), consumer, budgetNanos);
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Creates a sink that applies its values on the region which owns the entity.
+     * Values pushed after the entity is removed are never applied
+     * <p>
+     * <b>Bukkit</b>: same as {@link #createSink(Consumer, long)}
+     *
+     * @param entity      The entity whose location the region executing should own
+     * @param consumer    The consumer applying each value
+     * @param budgetNanos The per-tick budget, in nanoseconds, or 0 to apply every waiting value
+     * @param <T>         The type of the values
+     * @return The sink
+     */
+    default <T> SyncSink<T> createSink(Entity entity, Consumer<? super T> consumer, long budgetNanos) {
+        return new SyncSink<>(sink -> prepare(entity, sink), consumer, budgetNanos);
+    }
+
+    /**
+     * Creates a bounded lane in front of the async pool, which runs at most {@code parallelism} of its
+     * tasks at once and queues at most {@code capacity} more. Submissions finding the queue full are
+     * handled by the overflow policy, so a stalled backend can't pile up unbounded async work.
+     *
+     * @param parallelism The maximum number of tasks handed to the async pool at once
+     * @param capacity    The maximum number of tasks waiting in the queue, at least 1
+     * @param policy      What to do with a task submitted while the queue is full
+     * @return The lane
+     * @throws IllegalArgumentException if the parallelism or the capacity isn't positive
+     */
+    default AsyncLane createAsyncLane(int parallelism, int capacity, OverflowPolicy policy) {
+        return new AsyncLane(this, parallelism, capacity, policy);
+    }
+
+    /**
+     * Applies the action to every location of the collection <br>
+     * <b>Folia & Paper</b>: ...on the regions owning them, with one task per group of nearby locations
+     * instead of one per location <br>
+     * <b>Bukkit</b>: ...on the main thread, from one task spending at most 5 ms per tick
+     * <p>
+     * The collection is copied when this method is called. A failing location doesn't prevent the
+     * others from being visited.
+     *
+     * @param locations The locations to visit
+     * @param action    The action to apply to each location
+     * @return A future completed once every location was visited, or completed exceptionally with
+     * the first failure
+     */
+    default CompletableFuture<Void> runForEach(Collection<? extends Location> locations, Consumer<? super Location> action) {
+        return new LocationBatch(this, action).runBudgeted(locations);
+    }
+
+    /**
+     * Applies the action to every entity of the collection <br>
+     * <b>Folia & Paper</b>: ...in parallel on the regions owning them, with one task per shard of
+     * nearby entities, run through the scheduler of the shard's first entity <br>
+     * <b>Bukkit</b>: ...on the main thread, from one task spending at most 5 ms per tick
+     * <p>
+     * The collection is copied when this method is called. Entities removed before their turn are
+     * skipped, and a failing entity doesn't prevent the others from being visited.
+     *
+     * @param entities The entities to visit
+     * @param action   The action to apply to each entity, on the thread owning it
+     * @return A future completed once every entity was visited or skipped, or completed exceptionally
+     * with the first failure
+     */
+    default CompletableFuture<Void> parallelForEach(Collection<? extends Entity> entities, Consumer<? super Entity> action) {
+        return new EntityBatch(this, action).runBudgeted(entities);
+    }
+
+    /**
+     * Requests a debounced execution for the key: the runnable runs once, at least {@code delay} ticks
+     * after the last request for the same key, no matter how many requests came in meanwhile <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     * <p>
+     * Each request replaces the runnable to execute. Keys are shared by every debounce and throttle
+     * variant of this scheduler and compared with {@link Object#equals(Object)}.
+     *
+     * @param key      The key identifying the pending execution
+     * @param runnable The task to execute
+     * @param delay    The quiet window, in ticks
+     * @return true if this request scheduled a new execution, false if it joined a pending one
+     */
+    boolean debounce(Object key, Runnable runnable, long delay);
+
+    /**
+     * <b>Folia & Paper</b>: Requests a debounced execution for the key on the region which owns the location
+     * <p>
+     * <b>Bukkit</b>: same as {@link #debounce(Object, Runnable, long)}
+     *
+     * @param location The location which the region executing should own
+     * @param key      The key identifying the pending execution
+     * @param runnable The task to execute
+     * @param delay    The quiet window, in ticks
+     * @return true if this request scheduled a new execution, false if it joined a pending one
+     */
+    boolean debounce(Location location, Object key, Runnable runnable, long delay);
+
+    /**
+     * <b>Folia & Paper</b>: Requests a debounced execution for the key on the region which owns the entity
+     * <p>
+     * <b>Bukkit</b>: same as {@link #debounce(Object, Runnable, long)}
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param key      The key identifying the pending execution
+     * @param runnable The task to execute
+     * @param delay    The quiet window, in ticks
+     * @return true if this request scheduled a new execution, false if it joined a pending one
+     */
+    boolean debounce(Entity entity, Object key, Runnable runnable, long delay);
+
+    /**
+     * Requests a throttled execution for the key: the first request runs on the next tick, and the
+     * requests made after it collapse into one execution per {@code period} ticks <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     * <p>
+     * Each request replaces the runnable to execute. Keys are shared by every debounce and throttle
+     * variant of this scheduler and compared with {@link Object#equals(Object)}.
+     *
+     * @param key      The key identifying the pending execution
+     * @param runnable The task to execute
+     * @param period   The minimum time between executions, in ticks
+     * @return true if this request scheduled a new execution, false if it joined a pending one
+     */
+    boolean throttle(Object key, Runnable runnable, long period);
+
+    /**
+     * <b>Folia & Paper</b>: Requests a throttled execution for the key on the region which owns the location
+     * <p>
+     * <b>Bukkit</b>: same as {@link #throttle(Object, Runnable, long)}
+     *
+     * @param location The location which the region executing should own
+     * @param key      The key identifying the pending execution
+     * @param runnable The task to execute
+     * @param period   The minimum time between executions, in ticks
+     * @return true if this request scheduled a new execution, false if it joined a pending one
+     */
+    boolean throttle(Location location, Object key, Runnable runnable, long period);
+
+    /**
+     * <b>Folia & Paper</b>: Requests a throttled execution for the key on the region which owns the entity
+     * <p>
+     * <b>Bukkit</b>: same as {@link #throttle(Object, Runnable, long)}
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param key      The key identifying the pending execution
+     * @param runnable The task to execute
+     * @param period   The minimum time between executions, in ticks
+     * @return true if this request scheduled a new execution, false if it joined a pending one
+     */
+    boolean throttle(Entity entity, Object key, Runnable runnable, long period);
+
+    /**
+     * Same as {@link #runTaskTimer(Runnable, long, long)}, but the task is deferrable: while its thread
+     * lags, the task skips runs to stretch its period, up to 8 times, in proportion to how late its
+     * runs come in. Meant for background work that should back off under load.
+     *
+     * @param runnable The task to execute
+     * @param delay    The time delay to pass before the first execution of the task, in ticks
+     * @param period   The time between task executions when there is no lag, in ticks
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskTimerDeferrable(Runnable runnable, long delay, long period) {
+        return runTaskTimer(DeferrableRunnable.of(runnable, period), delay, period);
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Same as {@link #runTaskTimer(Location, Runnable, long, long)}, but the task
+     * backs off while the region owning the location lags
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runTaskTimerDeferrable(Runnable, long, long)}
+     *
+     * @param location The location which the region executing should own
+     * @param runnable The task to execute
+     * @param delay    The initial delay, in ticks.
+     * @param period   The period when there is no lag, in ticks.
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskTimerDeferrable(Location location, Runnable runnable, long delay, long period) {
+        return runTaskTimer(location, DeferrableRunnable.of(runnable, period), delay, period);
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Same as {@link #runTaskTimer(Entity, Runnable, long, long)}, but the task
+     * backs off while the region owning the entity lags
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runTaskTimerDeferrable(Runnable, long, long)}
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param runnable The task to execute
+     * @param delay    The initial delay, in ticks.
+     * @param period   The period when there is no lag, in ticks.
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskTimerDeferrable(Entity entity, Runnable runnable, long delay, long period) {
+        return runTaskTimer(entity, DeferrableRunnable.of(runnable, period), delay, period);
+    }
+
+    /**
+     * Returns how far behind the global region (Folia & Paper) or main thread (Bukkit) is running,
+     * as a moving average of the measured tick length over the expected 50 ms: about 1.0 when the
+     * server keeps up, 2.0 at half speed.
+     * <p>
+     * Measuring starts with the first call, which returns 1.0.
+     *
+     * @return The current load factor
+     */
+    double getLoadFactor();
+
+    /**
+     * Schedules every runnable of the collection to be executed, in iteration order, as one task
+     * on the next tick <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     * <p>
+     * The collection is copied when this method is called. A failing runnable doesn't prevent
+     * the rest of the batch from running.
+     *
+     * @param runnables The tasks to execute
+     * @return The {@link RunnableTask} that represents the whole batch
+     */
+    default RunnableTask runBatch(Collection<? extends Runnable> runnables) {
+        return runTask(new BatchRunnable(runnables));
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Schedules every runnable of the collection to be executed, in iteration order,
+     * as one task on the region which owns the location on the next tick
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runBatch(Collection)}
+     *
+     * @param location  The location which the region executing should own
+     * @param runnables The tasks to execute
+     * @return The {@link RunnableTask} that represents the whole batch
+     */
+    default RunnableTask runBatch(Location location, Collection<? extends Runnable> runnables) {
+        return runTask(location, new BatchRunnable(runnables));
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Schedules every runnable of the collection to be executed, in iteration order,
+     * as one task on the region which owns the location of given entity on the next tick
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runBatch(Collection)}
+     *
+     * @param entity    The entity whose location the region executing should own
+     * @param runnables The tasks to execute
+     * @return The {@link RunnableTask} that represents the whole batch
+     */
+    default RunnableTask runBatch(Entity entity, Collection<? extends Runnable> runnables) {
+        return runTask(entity, new BatchRunnable(runnables));
+    }
+
+    /**
+     * Processes the work units of the iterator on every tick, spending at most the given budget
+     * per tick, until the iterator is exhausted <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     * <p>
+     * Work that doesn't fit in a tick's budget carries over to the next one, so large jobs cost
+     * throughput instead of TPS. A stream can be passed through {@link java.util.stream.Stream#iterator()}.
+     * The iterator is only consumed on the thread running the task.
+     *
+     * @param work        The work units to execute
+     * @param budgetNanos The time budget per tick, in nanoseconds
+     * @return The repeating {@link RunnableTask} processing the work, cancelled once it's done
+     */
+    default RunnableTask runBudgeted(Iterator<? extends Runnable> work, long budgetNanos) {
+        BudgetedWork budgeted = new BudgetedWork(work, budgetNanos);
+        return budgeted.bind(runTaskTimer(budgeted, 1L, 1L));
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Processes the work units of the iterator on every tick of the region which
+     * owns the location, spending at most the given budget per tick, until the iterator is exhausted
+     * <p>
+     * <b>Bukkit</b>: same as {@link #runBudgeted(Iterator, long)}
+     *
+     * @param location    The location which the region executing should own
+     * @param work        The work units to execute
+     * @param budgetNanos The time budget per tick, in nanoseconds
+     * @return The repeating {@link RunnableTask} processing the work, cancelled once it's done
+     */
+    default RunnableTask runBudgeted(Location location, Iterator<? extends Runnable> work, long budgetNanos) {
+        BudgetedWork budgeted = new BudgetedWork(work, budgetNanos);
+        return budgeted.bind(runTaskTimer(location, budgeted, 1L, 1L));
+    }
+
     /**
      * Schedules the specified task to be executed asynchronously immediately
      *
@@ -240,6 +647,112 @@ public interface GlobalScheduler {
      */
     RunnableTask runTaskTimerAsynchronously(Runnable runnable, long delay, long period);
 
+    /**
+     * Schedules the specified task to be executed asynchronously after the time delay has passed,
+     * measured in real time instead of ticks, so it's neither rounded to a tick nor delayed by lag
+     *
+     * @param runnable The task to execute
+     * @param delay    The time delay to pass before the task should be executed
+     * @param unit     The unit of the delay
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay, TimeUnit unit);
+
+    /**
+     * Same as {@link #runTaskLaterAsynchronously(Runnable, long, TimeUnit)} with the delay as a {@link Duration}.
+     *
+     * @param runnable The task to execute
+     * @param delay    The time delay to pass before the task should be executed
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskLaterAsynchronously(Runnable runnable, Duration delay) {
+        return runTaskLaterAsynchronously(runnable, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Schedules the specified task to be executed asynchronously after the initial delay has passed,
+     * and then at a fixed rate, measured in real time instead of ticks
+     * <p>
+     * Runs are due at {@code delay + n * period}. A run that comes due while the previous one is
+     * still going is skipped, so a slow task never overlaps itself.
+     *
+     * @param runnable The task to execute
+     * @param delay    The time delay to pass before the first execution of the task
+     * @param period   The time between the starts of consecutive executions, must be positive
+     * @param unit     The unit of the delay and period
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    RunnableTask runTaskAtFixedRateAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit);
+
+    /**
+     * Same as {@link #runTaskAtFixedRateAsynchronously(Runnable, long, long, TimeUnit)} with the
+     * delay and period as {@link Duration durations}.
+     *
+     * @param runnable The task to execute
+     * @param delay    The time delay to pass before the first execution of the task
+     * @param period   The time between the starts of consecutive executions, must be positive
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskAtFixedRateAsynchronously(Runnable runnable, Duration delay, Duration period) {
+        return runTaskAtFixedRateAsynchronously(runnable, delay.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Schedules the specified task to be executed asynchronously after the initial delay has passed,
+     * and then again each time the period has passed since the previous execution ended, measured
+     * in real time instead of ticks
+     *
+     * @param runnable The task to execute
+     * @param delay    The time delay to pass before the first execution of the task
+     * @param period   The time between the end of an execution and the start of the next, must be positive
+     * @param unit     The unit of the delay and period
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    RunnableTask runTaskWithFixedDelayAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit);
+
+    /**
+     * Same as {@link #runTaskWithFixedDelayAsynchronously(Runnable, long, long, TimeUnit)} with the
+     * delay and period as {@link Duration durations}.
+     *
+     * @param runnable The task to execute
+     * @param delay    The time delay to pass before the first execution of the task
+     * @param period   The time between the end of an execution and the start of the next, must be positive
+     * @return The {@link RunnableTask} that represents the scheduled task
+     */
+    default RunnableTask runTaskWithFixedDelayAsynchronously(Runnable runnable, Duration delay, Duration period) {
+        return runTaskWithFixedDelayAsynchronously(runnable, delay.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Opts the asynchronous task methods of this scheduler in or out of Java 21 virtual threads.
+     * <p>
+     * When enabled, {@link #runTaskAsynchronously(Runnable)}, {@link #runTaskLaterAsynchronously(Runnable, long)}
+     * and {@link #runTaskTimerAsynchronously(Runnable, long, long)} start a virtual thread per run instead of
+     * using the server's bounded async pool, which suits blocking I/O such as database or HTTP calls.
+     * On runtimes without virtual threads the current behaviour is kept.
+     *
+     * @param enabled Whether async tasks should run on virtual threads
+     * @return true if async tasks now run on virtual threads, false otherwise
+     */
+    default boolean setVirtualThreads(boolean enabled) {
+        return false;
+    }
+
+    /**
+     * @return true if async tasks of this scheduler run on virtual threads, false otherwise
+     */
+    default boolean isVirtualThreads() {
+        return false;
+    }
+
+    /**
+     * Returns the execution metrics of the tasks scheduled through this scheduler, aggregated per plugin,
+     * per task label and per {@link TaskLane}. The metrics of a single task are on {@link RunnableTask#getMetrics()}.
+     *
+     * @return The live metrics of this scheduler
+     */
+    SchedulerMetrics getMetrics();
+
     /**
      * Deprecated: use {@link #runTaskAsynchronously(Runnable)} after creating a scheduler for that plugin.
      */
@@ -265,19 +778,123 @@ public interface GlobalScheduler {
      * Note: The Future.get() methods must NOT be called from the main thread.
      * <p>
      * Note2: There is at least an average of 10ms latency until the isDone() method returns true.
+     * <p>
+     * If the task throws, the returned future is completed exceptionally with that exception.
      *
      * @param task Task to be executed
      */
     default <T> Future<T> callSyncMethod(final Callable<T> task) {
-        CompletableFuture<T> completableFuture = new CompletableFuture<>();
-        execute(() -> {
-            try {
-                completableFuture.complete(task.call());
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        });
-        return completableFuture;
+        SupplyingRunnable<T> runnable = new SupplyingRunnable<>(task);
+        execute(runnable);
+        return runnable.future;
+    }
+
+    /**
+     * Supplies a value on the next tick and completes the returned future with it <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     * <p>
+     * If the supplier throws, the future is completed exceptionally with that exception.
+     *
+     * @param supplier The supplier to call
+     * @return A future completed with the supplied value
+     */
+    default <T> CompletableFuture<T> supplySync(Supplier<? extends T> supplier) {
+        SupplyingRunnable<T> runnable = SupplyingRunnable.of(supplier);
+        execute(runnable);
+        return runnable.future;
+    }
+
+    /**
+     * Supplies a value asynchronously and completes the returned future with it.
+     * <p>
+     * If the supplier throws, the future is completed exceptionally with that exception.
+     *
+     * @param supplier The supplier to call
+     * @return A future completed with the supplied value
+     */
+    default <T> CompletableFuture<T> supplyAsync(Supplier<? extends T> supplier) {
+        SupplyingRunnable<T> runnable = SupplyingRunnable.of(supplier);
+        runTaskAsynchronously(runnable);
+        return runnable.future;
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Supplies a value on the region which owns the location and completes
+     * the returned future with it
+     * <p>
+     * <b>Bukkit</b>: same as {@link #supplySync(Supplier)}
+     *
+     * @param location The location which the region executing should own
+     * @param supplier The supplier to call
+     * @return A future completed with the supplied value
+     */
+    default <T> CompletableFuture<T> supplyAt(Location location, Supplier<? extends T> supplier) {
+        SupplyingRunnable<T> runnable = SupplyingRunnable.of(supplier);
+        execute(location, runnable);
+        return runnable.future;
+    }
+
+    /**
+     * <b>Folia & Paper</b>: Supplies a value on the region which owns the location of given entity
+     * and completes the returned future with it. If the entity is removed before the supplier runs,
+     * the future is completed exceptionally with an {@link IllegalStateException}.
+     * <p>
+     * <b>Bukkit</b>: same as {@link #supplySync(Supplier)}
+     *
+     * @param entity   The entity whose location the region executing should own
+     * @param supplier The supplier to call
+     * @return A future completed with the supplied value
+     */
+    default <T> CompletableFuture<T> supplyAt(Entity entity, Supplier<? extends T> supplier) {
+        SupplyingRunnable<T> runnable = SupplyingRunnable.of(supplier);
+        execute(entity, runnable, () -> runnable.future.completeExceptionally(
+                new IllegalStateException("Entity " + entity + " was removed before the task could run")));
+        return runnable.future;
+    }
+
+    /**
+     * Returns an executor that runs its commands through {@link #execute(Runnable)}, to hop
+     * {@link CompletableFuture} stages onto the global region (Folia & Paper) or main thread (Bukkit).
+     *
+     * @return The sync executor
+     */
+    default Executor asExecutor() {
+        return this::execute;
+    }
+
+    /**
+     * Returns an executor that runs its commands through {@link #execute(Location, Runnable)}, to hop
+     * {@link CompletableFuture} stages onto the region which owns the location.
+     *
+     * @param location The location which the region executing should own
+     * @return The region executor
+     */
+    default Executor asExecutor(Location location) {
+        return runnable -> execute(location, runnable);
+    }
+
+    /**
+     * Returns an executor that runs its commands through {@link #execute(Entity, Runnable)}, to hop
+     * {@link CompletableFuture} stages onto the region which owns the location of given entity.
+     * <p>
+     * Commands submitted after the entity is removed are silently dropped; use
+     * {@link #supplyAt(Entity, Supplier)} when that must surface as a failure.
+     *
+     * @param entity The entity whose location the region executing should own
+     * @return The entity executor
+     */
+    default Executor asExecutor(Entity entity) {
+        return runnable -> execute(entity, runnable);
+    }
+
+    /**
+     * Returns an executor that runs its commands through {@link #runTaskAsynchronously(Runnable)}.
+     *
+     * @return The async executor
+     */
+    default Executor asAsyncExecutor() {
+        return this::runTaskAsynchronously;
     }
 
     /**
@@ -297,6 +914,24 @@ public interface GlobalScheduler {
      */
     void cancel(int taskId);
 
+    /**
+     * Cancels every task scheduled through this scheduler at the chunk of the location <br>
+     * <b>Folia & Paper</b>: ...on the region owning it <br>
+     * <b>Bukkit</b>: ...on the main thread
+     *
+     * @param location The location whose chunk the tasks were scheduled at
+     */
+    void cancel(Location location);
+
+    /**
+     * Cancels every task scheduled through this scheduler for the entity <br>
+     * <b>Folia & Paper</b>: ...on the region owning it <br>
+     * <b>Bukkit</b>: ...on the main thread
+     *
+     * @param entity The entity the tasks were scheduled for
+     */
+    void cancel(Entity entity);
+
     /**
      * Schedules a task to be executed on the region which owns the location
      *
@@ -317,6 +952,117 @@ public interface GlobalScheduler {
         execute(runnable);
     }
 
+    /**
+     * Schedules a task to be executed on the region which owns the location of given entity
+     * <p>
+     * <b>Folia & Paper</b>: if the entity is removed before the task runs, the retired callback
+     * is called instead <br>
+     * <b>Bukkit</b>: same as {@link #execute(Entity, Runnable)}, the retired callback is never called
+     *
+     * @param entity   The entity which location the region executing should own
+     * @param runnable The task to execute
+     * @param retired  The callback to run if the entity is removed first, may be null
+     */
+    default void execute(Entity entity, Runnable runnable, Runnable retired) {
+        execute(entity, runnable);
+    }
+
+    /**
+     * Queues a task in a priority lane, drained by a single task of this scheduler on the next tick <br>
+     * <b>Folia & Paper</b>: ...on the global region <br>
+     * <b>Bukkit</b>: ...on the main thread
+     * <p>
+     * Every run drains the {@link TaskPriority#HIGH high} lane completely, then the normal and low
+     * lanes in that order until the {@link #setPriorityBudget(long) budget} is spent. Whatever is
+     * left runs on the following ticks, so bulk work in the lower lanes never delays high priority
+     * work by more than a tick.
+     *
+     * @param priority The lane to queue the task in
+     * @param runnable The task to execute
+     */
+    void execute(TaskPriority priority, Runnable runnable);
+
+    /**
+     * Sets how long the normal and low priority lanes may run per tick. Defaults to 5 ms.
+     *
+     * @param budgetNanos The per-tick budget, in nanoseconds
+     */
+    void setPriorityBudget(long budgetNanos);
+
+    /**
+     * Runs the task right away if the current thread is the global region (Folia & Paper) or the main
+     * thread (Bukkit), or else schedules it like {@link #execute(Runnable)}
+     * <p>
+     * Running inline skips the tick of latency of a hop, but also runs the task ahead of the ones
+     * already queued for that thread, and within the caller's stack.
+     *
+     * @param runnable The task to execute
+     * @return true if the task ran inline, false if it was scheduled
+     */
+    default boolean executeInline(Runnable runnable) {
+        if (!isGlobalThread()) {
+            execute(runnable);
+            return false;
+        }
+
+        runnable.run();
+        return true;
+    }
+
+    /**
+     * Runs the task right away if the current thread owns the location, or else schedules it like
+     * {@link #execute(Location, Runnable)}
+     * <p>
+     * Running inline skips the tick of latency of a hop, but also runs the task ahead of the ones
+     * already queued for that region, and within the caller's stack.
+     *
+     * @param location The location which the region executing should own
+     * @param runnable The task to execute
+     * @return true if the task ran inline, false if it was scheduled
+     */
+    default boolean executeInline(Location location, Runnable runnable) {
+        if (!isRegionThread(location)) {
+            execute(location, runnable);
+            return false;
+        }
+
+        runnable.run();
+        return true;
+    }
+
+    /**
+     * Runs the task right away if the current thread owns the entity, or else schedules it like
+     * {@link #execute(Entity, Runnable, Runnable)}
+     * <p>
+     * Running inline skips the tick of latency of a hop, but also runs the task ahead of the ones
+     * already queued for that region, and within the caller's stack.
+     *
+     * @param entity   The entity which location the region executing should own
+     * @param runnable The task to execute
+     * @param retired  The callback to run if the entity is removed before a scheduled task runs, may be null
+     * @return true if the task ran inline, false if it was scheduled
+     */
+    default boolean executeInline(Entity entity, Runnable runnable, Runnable retired) {
+        if (!isEntityThread(entity)) {
+            execute(entity, runnable, retired);
+            return false;
+        }
+
+        runnable.run();
+        return true;
+    }
+
+    /**
+     * Same as {@link #executeInline(Entity, Runnable, Runnable)} without a retired callback.
+     *
+     * @param entity   The entity which location the region executing should own
+     * @param runnable The task to execute
+     * @return true if the task ran inline, false if it was scheduled
+     */
+    default boolean executeInline(Entity entity, Runnable runnable) {
+        return executeInline(entity, runnable, null);
+    }
+
     /**
      * Attempts to cancel all tasks scheduled by this plugin
      */
@@ -329,10 +1075,35 @@ public interface GlobalScheduler {
      */
     void cancelAll(Plugin plugin);
 
+    /**
+     * Creates a group of tasks backed by this scheduler. Every task scheduled through the group, on
+     * any lane, can be cancelled at once with {@link TaskGroup#cancel()}, and its completion can be
+     * awaited through {@link TaskGroup#getCompletion()} once the group is closed.
+     *
+     * @return A new, open task group
+     */
+    default TaskGroup createGroup() {
+        return new TaskGroup(this, null);
+    }
+
+    /**
+     * Wraps a runnable so the tasks running it are reported under the given label in the
+     * {@link #getMetrics() scheduler metrics}, instead of under the runnable's class name.
+     *
+     * @param label    The label to report the task under
+     * @param runnable The runnable to wrap
+     * @return The labeled runnable
+     */
+    static Runnable labeled(@NotNull String label, @NotNull Runnable runnable) {
+        return new LabeledRunnable(label, runnable);
+    }
+
     /**
      * Returns the scheduler for the specified plugin.
      * <p>
-     * This method is used to obtain a scheduler instance for a specific plugin.
+     * This method is used to obtain a scheduler instance for a specific plugin. The instance is
+     * created once per plugin and shared by every caller, so it's cheap to call on hot paths and
+     * {@link #cancelAll()} sees every task the plugin scheduled through it.
      *
      * @param plugin The plugin for which to get the scheduler
      * @return The scheduler instance for the specified plugin
@@ -351,6 +1122,6 @@ public interface GlobalScheduler {
      */
     @NotNull
     static GlobalScheduler getScheduler() {
-        return getScheduler(JavaPlugin.getProvidingPlugin(GlobalScheduler.class));
+        return getScheduler(SchedulerUtils.getProvidingPlugin());
     }
 }
@@ -0,0 +1,161 @@
+package me.croabeast.scheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The Java Flight Recorder events of {@link TaskEvents}. Only loaded once {@code jdk.jfr} is known to
+ * be available.
+ */
+final class JfrEvents {
+
+    private static final EventType SUBMIT = EventType.getEventType(Submit.class);
+    private static final EventType START = EventType.getEventType(Start.class);
+    private static final EventType END = EventType.getEventType(End.class);
+    private static final EventType CANCEL = EventType.getEventType(Cancel.class);
+    private static final EventType FAILURE = EventType.getEventType(Failure.class);
+
+    private JfrEvents() {}
+
+    static boolean init() {
+        return SUBMIT != null;
+    }
+
+    static void submitted(TaskMetrics task, long delayNanos, long periodNanos) {
+        if (START.isEnabled()) {
+            task.delayNanos = delayNanos;
+            task.periodNanos = periodNanos;
+            task.dueNanos = System.nanoTime() + delayNanos;
+        }
+
+        if (!SUBMIT.isEnabled()) return;
+
+        Submit event = new Submit();
+        event.fill(task);
+        event.delay = delayNanos;
+        event.period = periodNanos;
+        event.commit();
+    }
+
+    static Object started(TaskMetrics task) {
+        if (START.isEnabled()) {
+            long now = System.nanoTime(), due = task.dueNanos;
+
+            Start event = new Start();
+            event.fill(task);
+            event.delay = task.delayNanos;
+            // unknown for runs submitted before the recording started
+            event.queueLatency = due == 0L ? 0L : Math.max(now - due, 0L);
+            event.commit();
+
+            // timers are scheduled again from the tick their run started on
+            if (task.periodNanos > 0) {
+                task.delayNanos = task.periodNanos;
+                task.dueNanos = now + task.periodNanos;
+            }
+        }
+
+        if (!END.isEnabled()) return null;
+
+        End event = new End();
+        event.fill(task);
+        event.begin();
+        return event;
+    }
+
+    static void ended(Object event) {
+        ((End) event).commit();
+    }
+
+    static void failed(TaskMetrics task, Throwable throwable) {
+        if (!FAILURE.isEnabled()) return;
+
+        Failure event = new Failure();
+        event.fill(task);
+        event.exception = throwable.getClass().getName();
+        event.message = throwable.getMessage();
+        event.commit();
+    }
+
+    static void cancelled(TaskMetrics task) {
+        if (!CANCEL.isEnabled()) return;
+
+        Cancel event = new Cancel();
+        event.fill(task);
+        event.commit();
+    }
+
+    @Category("GlobalScheduler")
+    @StackTrace(false)
+    abstract static class TaskEvent extends Event {
+
+        @Label("Lane")
+        String lane;
+        @Label("Plugin")
+        String plugin;
+        @Label("Task")
+        String label;
+
+        void fill(TaskMetrics task) {
+            lane = task.getLane().name();
+            plugin = task.plugin.getName();
+            label = task.getLabel();
+        }
+    }
+
+    @Name("me.croabeast.scheduler.TaskSubmit")
+    @Label("Task Submit")
+    @Description("A task was scheduled")
+    @StackTrace(true)
+    static final class Submit extends TaskEvent {
+
+        @Label("Delay")
+        @Timespan
+        long delay;
+        @Label("Period")
+        @Timespan
+        long period;
+    }
+
+    @Name("me.croabeast.scheduler.TaskStart")
+    @Label("Task Start")
+    @Description("A run of a task started")
+    static final class Start extends TaskEvent {
+
+        @Label("Delay")
+        @Timespan
+        long delay;
+        @Label("Queue Latency")
+        @Description("How long the run waited past its due time")
+        @Timespan
+        long queueLatency;
+    }
+
+    @Name("me.croabeast.scheduler.TaskEnd")
+    @Label("Task End")
+    @Description("A run of a task ended, spanning the whole run")
+    static final class End extends TaskEvent {}
+
+    @Name("me.croabeast.scheduler.TaskCancel")
+    @Label("Task Cancel")
+    @Description("A task was cancelled")
+    @StackTrace(true)
+    static final class Cancel extends TaskEvent {}
+
+    @Name("me.croabeast.scheduler.TaskException")
+    @Label("Task Exception")
+    @Description("A run of a task threw an exception")
+    static final class Failure extends TaskEvent {
+
+        @Label("Exception")
+        String exception;
+        @Label("Message")
+        String message;
+    }
+}
@@ -0,0 +1,23 @@
+package me.croabeast.scheduler;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A runnable carrying the label its task is reported under in the scheduler metrics.
+ */
+@RequiredArgsConstructor
+class LabeledRunnable implements Runnable {
+
+    final String label;
+    final Runnable runnable;
+
+    @Override
+    public void run() {
+        runnable.run();
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
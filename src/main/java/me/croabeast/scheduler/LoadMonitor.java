@@ -0,0 +1,48 @@
+package me.croabeast.scheduler;
+
+/**
+ * Tracks how long the ticks of a scheduler's global thread take, from a probe task that runs
+ * every tick and measures the time since its previous run. The probe is only started by the
+ * first {@link #getLoadFactor()} call, and started again if it gets cancelled.
+ */
+final class LoadMonitor implements Runnable {
+
+    private final GlobalScheduler scheduler;
+
+    private volatile RunnableTask probe;
+    private long lastNanos;
+    private volatile double load = 1.0;
+
+    LoadMonitor(GlobalScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Folds the ratio between a measured interval and the expected one into a moving average.
+     */
+    static double sample(double load, long elapsedNanos, long expectedNanos) {
+        return load + ((double) elapsedNanos / expectedNanos - load) * 0.25;
+    }
+
+    double getLoadFactor() {
+        RunnableTask probe = this.probe;
+
+        if (probe == null || probe.isCancelled())
+            synchronized (this) {
+                probe = this.probe;
+                if (probe == null || probe.isCancelled()) {
+                    lastNanos = 0L;
+                    this.probe = scheduler.runTaskTimer(GlobalScheduler.labeled("LoadMonitor", this), 1L, 1L);
+                }
+            }
+
+        return load;
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+        if (lastNanos != 0L) load = sample(load, now - lastNanos, TimingWheel.TICK_NANOS);
+        lastNanos = now;
+    }
+}
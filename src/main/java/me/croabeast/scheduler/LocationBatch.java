@@ -0,0 +1,64 @@
+package me.croabeast.scheduler;
+
+import org.bukkit.Location;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Applies an action to every location of a collection.
+ * <p>
+ * On regionized servers the locations are grouped by 16x16 chunk section, which is the grid Folia
+ * builds its regions from, and each group runs as one task at its first location. Since regions
+ * can split between scheduling and running, every location is checked for ownership and the ones
+ * the region lost are re-dispatched grouped by chunk, which always have a single owner.
+ */
+final class LocationBatch extends ForEachBatch<Location> {
+
+    LocationBatch(GlobalScheduler scheduler, Consumer<? super Location> action) {
+        super(scheduler, action);
+    }
+
+    /**
+     * Runs the locations on the regions owning them, one task per chunk section.
+     */
+    CompletableFuture<Void> runByRegion(Collection<? extends Location> locations) {
+        Map<Object, List<Location>> groups = group(locations, l -> TaskIndex.keyOf(l, 8));
+        if (groups.isEmpty()) {
+            future.complete(null);
+            return future;
+        }
+
+        remaining.set(groups.size());
+        groups.values().forEach(g -> dispatch(g, false));
+        return future;
+    }
+
+    private void dispatch(List<Location> group, boolean owned) {
+        scheduler.runTask(group.get(0), () -> {
+            List<Location> lost = null;
+
+            for (Location location : group) {
+                if (owned || scheduler.isRegionThread(location)) {
+                    apply(location);
+                    continue;
+                }
+
+                if (lost == null) lost = new ArrayList<>();
+                lost.add(location);
+            }
+
+            if (lost != null) {
+                Map<Object, List<Location>> chunks = group(lost, TaskIndex::keyOf);
+                remaining.addAndGet(chunks.size());
+                chunks.values().forEach(g -> dispatch(g, true));
+            }
+
+            finish();
+        });
+    }
+}
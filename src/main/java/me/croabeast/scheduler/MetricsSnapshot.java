@@ -0,0 +1,70 @@
+package me.croabeast.scheduler;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * A point-in-time copy of a scheduler's {@link SchedulerMetrics}.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class MetricsSnapshot {
+
+    /**
+     * The counters of every lane.
+     */
+    private final Map<TaskLane, Entry> lanes;
+    /**
+     * The counters of every task label seen so far.
+     */
+    private final Map<String, Entry> labels;
+    /**
+     * The counters of every plugin, by plugin name.
+     */
+    private final Map<String, Entry> plugins;
+
+    /**
+     * Aggregated counters of a group of tasks.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+    public static final class Entry {
+
+        /**
+         * The number of runs, timed or not.
+         */
+        private final long runs;
+        /**
+         * The number of runs whose execution time was measured.
+         */
+        private final long timedRuns;
+        /**
+         * The sum of the measured execution times, in nanoseconds.
+         */
+        private final long totalNanos;
+        /**
+         * The longest measured execution time, in nanoseconds.
+         */
+        private final long maxNanos;
+        /**
+         * The number of runs that threw an exception.
+         */
+        private final long failures;
+
+        /**
+         * @return The average measured execution time, in nanoseconds
+         */
+        public double getAverageNanos() {
+            return timedRuns == 0 ? 0 : (double) totalNanos / timedRuns;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{runs=" + runs + ", avgNanos=" + (long) getAverageNanos() +
+                    ", maxNanos=" + maxNanos + ", failures=" + failures + '}';
+        }
+    }
+}
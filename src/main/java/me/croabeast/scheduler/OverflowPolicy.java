@@ -0,0 +1,26 @@
+package me.croabeast.scheduler;
+
+/**
+ * What an {@link AsyncLane} does with a task submitted while its queue is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Blocks the submitting thread until the queue has room. Never use it from a server thread,
+     * where waiting on a stalled lane stalls the tick.
+     */
+    BLOCK,
+    /**
+     * Drops the oldest waiting task, whose future fails with a
+     * {@link java.util.concurrent.RejectedExecutionException}, to make room for the new one.
+     */
+    DROP_OLDEST,
+    /**
+     * Runs the task on the submitting thread, which slows the producer down to the pace of the lane.
+     * Meant for producers on async threads of their own, for the same reason as {@link #BLOCK}.
+     */
+    CALLER_RUNS,
+    /**
+     * Fails the future of the new task with a {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    FAIL_FUTURE
+}
@@ -0,0 +1,113 @@
+package me.croabeast.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Priority lanes of a scheduler's global thread, drained by a single {@link ReusableTask} that is
+ * only scheduled while some lane has work.
+ * <p>
+ * Each run drains the high lane completely, then the normal and low lanes in that order until the
+ * budget is spent, and schedules itself for the next tick if anything is left. A saturated low lane
+ * therefore never delays high priority work by more than one tick. Tasks queued by a running task
+ * wait for the next run, so a lane can't keep the pump busy forever.
+ */
+final class PriorityPump implements Runnable {
+
+    static final long DEFAULT_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final GlobalScheduler scheduler;
+
+    private final Queue<Runnable>[] lanes;
+    // CLQ.size() walks the whole queue, so each lane keeps its own count
+    private final AtomicInteger[] sizes;
+
+    private volatile long budgetNanos = DEFAULT_BUDGET_NANOS;
+    private volatile ReusableTask task;
+
+    @SuppressWarnings("unchecked")
+    PriorityPump(GlobalScheduler scheduler) {
+        this.scheduler = scheduler;
+
+        int count = TaskPriority.values().length;
+        lanes = new Queue[count];
+        sizes = new AtomicInteger[count];
+
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new ConcurrentLinkedQueue<>();
+            sizes[i] = new AtomicInteger();
+        }
+    }
+
+    void setBudget(long budgetNanos) {
+        if (budgetNanos <= 0)
+            throw new IllegalArgumentException("Budget must be positive, got " + budgetNanos);
+        this.budgetNanos = budgetNanos;
+    }
+
+    void execute(TaskPriority priority, Runnable runnable) {
+        int lane = priority.ordinal();
+
+        lanes[lane].add(runnable);
+        sizes[lane].incrementAndGet();
+        wake();
+    }
+
+    private void wake() {
+        ReusableTask task = this.task;
+
+        // the pump's task goes away with cancelAll(), so a new one is prepared on demand
+        if (task == null || task.isCancelled()) task = renew(task);
+        if (task.schedule() || task.isPending()) return;
+
+        // refused without a run pending: stopped in a way the task can't tell, so it's replaced too
+        renew(task).schedule();
+    }
+
+    private synchronized ReusableTask renew(ReusableTask stale) {
+        if (task != stale) return task;
+
+        if (stale != null) stale.cancel();
+        return task = scheduler.prepare(GlobalScheduler.labeled("PriorityPump", this));
+    }
+
+    @Override
+    public void run() {
+        drain(TaskPriority.HIGH.ordinal(), Long.MAX_VALUE, System.nanoTime());
+
+        long start = System.nanoTime(), budget = budgetNanos;
+        for (int i = TaskPriority.NORMAL.ordinal(); i < lanes.length; i++) {
+            drain(i, budget, start);
+            if (System.nanoTime() - start >= budget) break;
+        }
+
+        for (AtomicInteger size : sizes)
+            if (size.get() > 0) {
+                wake();
+                return;
+            }
+    }
+
+    private void drain(int index, long budget, long start) {
+        Queue<Runnable> lane = lanes[index];
+        AtomicInteger size = sizes[index];
+
+        // only what was queued when the lane started draining, tasks queued meanwhile wait a tick
+        for (int n = size.get(); n > 0; n--) {
+            Runnable runnable = lane.poll();
+            if (runnable == null) return;
+            size.decrementAndGet();
+
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                task.getPlugin().getLogger().log(Level.WARNING, "Priority task generated an exception", t);
+            }
+
+            if (System.nanoTime() - start >= budget) return;
+        }
+    }
+}
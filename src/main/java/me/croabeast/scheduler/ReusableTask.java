@@ -0,0 +1,33 @@
+package me.croabeast.scheduler;
+
+/**
+ * A task created once and scheduled again as many times as needed, for recurring work that
+ * would otherwise allocate a new task handle on every run.
+ * <p>
+ * Scheduling a reusable task while a run is pending does nothing, so it never has more than one
+ * run queued. Once {@link #cancel() cancelled} it can't be scheduled anymore.
+ */
+public interface ReusableTask extends RunnableTask {
+
+    /**
+     * Schedules a run of this task on the next tick.
+     *
+     * @return true if a run was scheduled, false if one is pending or the task is cancelled
+     */
+    default boolean schedule() {
+        return schedule(0L);
+    }
+
+    /**
+     * Schedules a run of this task after the specified delay.
+     *
+     * @param delay The delay, in ticks
+     * @return true if a run was scheduled, false if one is pending or the task is cancelled
+     */
+    boolean schedule(long delay);
+
+    /**
+     * @return true if a run of this task is scheduled and hasn't started yet, false otherwise
+     */
+    boolean isPending();
+}
@@ -40,4 +40,23 @@ public interface RunnableTask {
      * @return true if task is repeating, false otherwise
      */
     boolean isRepeating();
-}
\ No newline at end of file
+
+    /**
+     * @return The execution metrics of this task.
+     */
+    TaskMetrics getMetrics();
+
+    /**
+     * @return The label this task is reported under in the scheduler metrics.
+     */
+    default String getLabel() {
+        return getMetrics().getLabel();
+    }
+
+    /**
+     * @return The lane this task was scheduled on.
+     */
+    default TaskLane getLane() {
+        return getMetrics().getLane();
+    }
+}
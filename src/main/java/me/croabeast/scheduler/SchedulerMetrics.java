@@ -0,0 +1,205 @@
+package me.croabeast.scheduler;
+
+import lombok.Getter;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Live execution metrics of the tasks scheduled through a {@link GlobalScheduler}, aggregated
+ * per plugin, per task label and per {@link TaskLane}.
+ * <p>
+ * Recording is on by default and cheap enough to leave on in production: the counters are
+ * allocation-free adders, and a {@link #setSampleRate(int) sample rate} above one only measures
+ * the run time of one in every N runs of each task. Labels come from runnables created through
+ * {@link GlobalScheduler#labeled(String, Runnable)}, or else from the runnable's class name.
+ */
+public final class SchedulerMetrics {
+
+    private static final ClassValue<String> CLASS_LABELS = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getName();
+            int lambda = name.indexOf("$$Lambda");
+            return lambda < 0 ? name : name.substring(0, lambda);
+        }
+    };
+
+    private final Aggregate[] lanes = new Aggregate[TaskLane.values().length];
+    private final ConcurrentHashMap<String, Aggregate> labels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Aggregate> plugins = new ConcurrentHashMap<>();
+
+    /**
+     * Whether task runs are being recorded.
+     */
+    @Getter
+    private volatile boolean enabled = true;
+    /**
+     * Every how many runs of a task its execution time is measured.
+     */
+    @Getter
+    private volatile int sampleRate = 1;
+
+    volatile StallWatchdog watchdog;
+
+    SchedulerMetrics() {
+        for (int i = 0; i < lanes.length; i++) lanes[i] = new Aggregate();
+    }
+
+    static String labelOf(Object task) {
+        return task instanceof LabeledRunnable ?
+                ((LabeledRunnable) task).label :
+                CLASS_LABELS.get(task.getClass());
+    }
+
+    TaskMetrics track(Plugin plugin, Runnable runnable, TaskLane lane) {
+        String label = labelOf(runnable);
+        return new TaskMetrics(this,
+                lanes[lane.ordinal()],
+                labels.computeIfAbsent(label, k -> new Aggregate()),
+                plugins.computeIfAbsent(plugin.getName(), k -> new Aggregate()),
+                plugin, label, lane
+        );
+    }
+
+    /**
+     * Turns recording on or off. Tasks keep running either way.
+     *
+     * @param enabled whether task runs should be recorded
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Sets the sampling mode: every run is still counted, but only one in every {@code rate} runs
+     * of each task has its execution time measured.
+     *
+     * @param rate every how many runs a task is timed, 1 to time every run
+     */
+    public void setSampleRate(int rate) {
+        if (rate < 1) throw new IllegalArgumentException("Sample rate must be at least 1, got " + rate);
+        this.sampleRate = rate;
+    }
+
+    /**
+     * Starts reporting the sync, region and entity task runs that take longer than the threshold,
+     * with the stack of their thread captured while they're still running. Replaces the watchdog
+     * started before, if any. Runs only pay a map lookup and a few writes while it's enabled, and
+     * nothing when it isn't.
+     *
+     * @param threshold the run time from which a run is reported
+     * @param unit      the unit of the threshold
+     * @param listener  called with each report from the watchdog thread, so it must not block
+     */
+    public synchronized void enableStallWatchdog(long threshold, TimeUnit unit, Consumer<? super StallReport> listener) {
+        StallWatchdog watchdog = new StallWatchdog(this, unit.toNanos(threshold), Objects.requireNonNull(listener));
+
+        StallWatchdog previous = this.watchdog;
+        this.watchdog = watchdog;
+        if (previous != null) previous.stop();
+    }
+
+    /**
+     * Starts reporting the task runs that take longer than the threshold as warnings on the logger of
+     * the plugin owning each task.
+     *
+     * @param threshold the run time from which a run is reported
+     * @param unit      the unit of the threshold
+     * @see #enableStallWatchdog(long, TimeUnit, Consumer)
+     */
+    public void enableStallWatchdog(long threshold, TimeUnit unit) {
+        enableStallWatchdog(threshold, unit, StallWatchdog::log);
+    }
+
+    /**
+     * Stops the stall watchdog, if it was enabled.
+     */
+    public synchronized void disableStallWatchdog() {
+        StallWatchdog watchdog = this.watchdog;
+        this.watchdog = null;
+        if (watchdog != null) watchdog.stop();
+    }
+
+    /**
+     * @return true if the stall watchdog is enabled, false otherwise
+     */
+    public boolean isStallWatchdogEnabled() {
+        return watchdog != null;
+    }
+
+    /**
+     * Clears every aggregated counter. Per-task metrics are left untouched.
+     */
+    public void reset() {
+        for (Aggregate lane : lanes) lane.reset();
+        labels.values().forEach(Aggregate::reset);
+        plugins.values().forEach(Aggregate::reset);
+    }
+
+    /**
+     * @return A point-in-time copy of the aggregated counters
+     */
+    public MetricsSnapshot snapshot() {
+        Map<TaskLane, MetricsSnapshot.Entry> lanes = new EnumMap<>(TaskLane.class);
+        for (TaskLane lane : TaskLane.values())
+            lanes.put(lane, this.lanes[lane.ordinal()].snapshot());
+
+        return new MetricsSnapshot(
+                Collections.unmodifiableMap(lanes),
+                snapshot(labels),
+                snapshot(plugins)
+        );
+    }
+
+    private static Map<String, MetricsSnapshot.Entry> snapshot(Map<String, Aggregate> map) {
+        Map<String, MetricsSnapshot.Entry> result = new HashMap<>();
+        map.forEach((k, v) -> result.put(k, v.snapshot()));
+        return Collections.unmodifiableMap(result);
+    }
+
+    static final class Aggregate {
+
+        private final LongAdder runs = new LongAdder(), timedRuns = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder(), failures = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        void count() {
+            runs.increment();
+        }
+
+        void record(long nanos) {
+            runs.increment();
+            timedRuns.increment();
+            totalNanos.add(nanos);
+            // reading first skips the CAS for the common case of a run that isn't a new maximum
+            if (nanos > maxNanos.get()) maxNanos.accumulate(nanos);
+        }
+
+        void fail() {
+            failures.increment();
+        }
+
+        void reset() {
+            runs.reset();
+            timedRuns.reset();
+            totalNanos.reset();
+            failures.reset();
+            maxNanos.reset();
+        }
+
+        MetricsSnapshot.Entry snapshot() {
+            return new MetricsSnapshot.Entry(runs.sum(), timedRuns.sum(),
+                    totalNanos.sum(), maxNanos.get(), failures.sum());
+        }
+    }
+}
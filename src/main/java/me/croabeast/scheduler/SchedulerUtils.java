@@ -3,8 +3,13 @@ package me.croabeast.scheduler;
 import lombok.experimental.UtilityClass;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 @UtilityClass
 class SchedulerUtils {
 
@@ -23,24 +28,65 @@ class SchedulerUtils {
             CANVAS_EXISTS = exists("io.canvasmc.canvas.server.ThreadedServer"),
             EXPANDED_SCHEDULING_EXISTS = exists(PREFIX + "scheduler.ScheduledTask");
 
+    private static final Function<Plugin, GlobalScheduler> FACTORY =
+            FOLIA_EXISTS || CANVAS_EXISTS ? FoliaScheduler::new :
+                    EXPANDED_SCHEDULING_EXISTS ? PaperScheduler::new :
+                            BukkitScheduler::new;
+
+    /*
+     * Schedulers live in a map held by the plugin's class, so they go away with its class loader
+     * on reloads instead of being pinned by a static map of the library.
+     */
+    private static final ClassValue<Map<Plugin, GlobalScheduler>> SCHEDULERS = new ClassValue<Map<Plugin, GlobalScheduler>>() {
+        @Override
+        protected Map<Plugin, GlobalScheduler> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>(1);
+        }
+    };
+
+    private static volatile Plugin providingPlugin;
+
     @NotNull
     static GlobalScheduler getScheduler(Plugin plugin) {
-        if (FOLIA_EXISTS || CANVAS_EXISTS)
-            return new FoliaScheduler(plugin);
-
-        if (EXPANDED_SCHEDULING_EXISTS)
-            return new FoliaScheduler(plugin) {
-                @Override
-                public boolean isGlobalThread() {
-                    return Bukkit.getServer().isPrimaryThread();
-                }
-
-                @Override
-                public String toString() {
-                    return "PaperScheduler{plugin=" + plugin + '}';
-                }
-            };
-
-        return new BukkitScheduler(plugin);
+        Map<Plugin, GlobalScheduler> schedulers = SCHEDULERS.get(plugin.getClass());
+
+        GlobalScheduler scheduler = schedulers.get(plugin);
+        return scheduler != null ? scheduler : schedulers.computeIfAbsent(plugin, FACTORY);
+    }
+
+    /**
+     * Replaces the scheduler returned for the plugin, for schedulers that don't need a server.
+     */
+    static void install(Plugin plugin, GlobalScheduler scheduler) {
+        SCHEDULERS.get(plugin.getClass()).put(plugin, scheduler);
+    }
+
+    @NotNull
+    static Plugin getProvidingPlugin() {
+        Plugin plugin = providingPlugin;
+        if (plugin == null)
+            providingPlugin = plugin = JavaPlugin.getProvidingPlugin(GlobalScheduler.class);
+
+        return plugin;
+    }
+
+    private static final class PaperScheduler extends FoliaScheduler {
+
+        private final Plugin plugin;
+
+        private PaperScheduler(Plugin plugin) {
+            super(plugin);
+            this.plugin = plugin;
+        }
+
+        @Override
+        public boolean isGlobalThread() {
+            return Bukkit.getServer().isPrimaryThread();
+        }
+
+        @Override
+        public String toString() {
+            return "PaperScheduler{plugin=" + plugin + '}';
+        }
     }
 }
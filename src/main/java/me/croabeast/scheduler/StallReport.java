@@ -0,0 +1,57 @@
+package me.croabeast.scheduler;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A sync, region or entity task run that took longer than the threshold of the stall watchdog,
+ * captured while it was still running.
+ *
+ * @see SchedulerMetrics#enableStallWatchdog(long, TimeUnit, java.util.function.Consumer)
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class StallReport {
+
+    /**
+     * The plugin owning the task.
+     */
+    private final Plugin plugin;
+    /**
+     * The label the task is reported under in the scheduler metrics.
+     */
+    private final String label;
+    /**
+     * The lane the task was scheduled on.
+     */
+    private final TaskLane lane;
+    /**
+     * The name of the thread running the task.
+     */
+    private final String threadName;
+    /**
+     * How long the run had been going when it was captured, in nanoseconds.
+     */
+    private final long elapsedNanos;
+    /**
+     * The stack of the thread running the task, when it was captured.
+     */
+    private final StackTraceElement[] stackTrace;
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder()
+                .append("Task '").append(label).append("' of ").append(plugin.getName())
+                .append(" has been running on ").append(threadName).append(" (").append(lane)
+                .append(") for ").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos)).append("ms");
+
+        for (StackTraceElement element : stackTrace)
+            builder.append("\n\tat ").append(element);
+
+        return builder.toString();
+    }
+}
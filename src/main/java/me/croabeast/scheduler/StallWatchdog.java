@@ -0,0 +1,168 @@
+package me.croabeast.scheduler;
+
+import org.bukkit.plugin.Plugin;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Reports sync, region and entity task runs that take longer than a threshold.
+ * <p>
+ * Every thread running watched tasks has a probe of its own, which a run marks with its task and
+ * start time and clears once it ends: a map lookup and a few writes, nothing else. A monitor thread
+ * shared by every scheduler scans the probes a few times per threshold and, for a run past the
+ * threshold, captures the stack of its thread. Each run is reported once, however long it stalls.
+ * <p>
+ * Probes live in a map of this class rather than in thread locals, so a server thread never keeps
+ * them, or the plugin classes their tasks point to, once the last watchdog is stopped.
+ */
+final class StallWatchdog implements Runnable {
+
+    private static final ScheduledThreadPoolExecutor MONITOR = createMonitor();
+
+    private static final ConcurrentHashMap<Thread, Probe> PROBES = new ConcurrentHashMap<>();
+    // running watchdogs, the probes are dropped once there are none left
+    private static final AtomicInteger RUNNING = new AtomicInteger();
+
+    private final SchedulerMetrics owner;
+    private final long thresholdNanos;
+    private final Consumer<? super StallReport> listener;
+    private final ScheduledFuture<?> future;
+
+    StallWatchdog(SchedulerMetrics owner, long thresholdNanos, Consumer<? super StallReport> listener) {
+        if (thresholdNanos <= 0) throw new IllegalArgumentException("Threshold must be positive: " + thresholdNanos);
+
+        this.owner = owner;
+        this.thresholdNanos = thresholdNanos;
+        this.listener = listener;
+
+        RUNNING.incrementAndGet();
+        long period = Math.min(Math.max(thresholdNanos / 4, TimeUnit.MILLISECONDS.toNanos(5)), TimeUnit.SECONDS.toNanos(1));
+        this.future = MONITOR.scheduleAtFixedRate(this, period, period, TimeUnit.NANOSECONDS);
+    }
+
+    private static ScheduledThreadPoolExecutor createMonitor() {
+        ScheduledThreadPoolExecutor monitor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "GlobalScheduler-Watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // let the thread go once every watchdog is stopped, instead of pinning the class loader
+        monitor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        monitor.allowCoreThreadTimeOut(true);
+        monitor.setRemoveOnCancelPolicy(true);
+        return monitor;
+    }
+
+    /**
+     * Logs the report on the logger of the plugin owning the task.
+     */
+    static void log(StallReport report) {
+        report.getPlugin().getLogger().log(Level.WARNING, report.toString());
+    }
+
+    /**
+     * Marks the start of a run on the current thread, until {@link Probe#exit()} is called.
+     */
+    static Probe enter(TaskMetrics task, long startNanos) {
+        Thread thread = Thread.currentThread();
+
+        Probe probe = PROBES.get(thread);
+        if (probe == null) probe = PROBES.computeIfAbsent(thread, Probe::new);
+
+        probe.enter(task, startNanos);
+        return probe;
+    }
+
+    void stop() {
+        if (future.cancel(false) && RUNNING.decrementAndGet() == 0) PROBES.clear();
+    }
+
+    @Override
+    public void run() {
+        long now = System.nanoTime();
+
+        for (Probe probe : PROBES.values()) {
+            if (!probe.thread.isAlive()) {
+                PROBES.remove(probe.thread, probe);
+                continue;
+            }
+
+            long started = probe.started;
+            if (started == 0L || started == probe.reported || now - started < thresholdNanos) continue;
+
+            // read after the start time, so it's at least as recent as that run
+            TaskMetrics task = probe.task;
+            if (task == null || task.owner != owner) continue;
+
+            StackTraceElement[] stack = probe.thread.getStackTrace();
+            // the run ended while the stack was being captured, so it shows something else
+            if (probe.started != started) continue;
+
+            probe.reported = started;
+            report(new StallReport(task.plugin, task.getLabel(), task.getLane(), probe.thread.getName(), now - started, stack));
+        }
+    }
+
+    private void report(StallReport report) {
+        try {
+            listener.accept(report);
+        } catch (Throwable t) {
+            Plugin plugin = report.getPlugin();
+            plugin.getLogger().log(Level.WARNING, "Stall watchdog listener generated an exception", t);
+        }
+    }
+
+    static final class Probe {
+
+        private final Thread thread;
+
+        // written before the start time, and only read after it
+        private TaskMetrics task;
+        private volatile long started;
+        // only touched by the monitor thread
+        private long reported;
+
+        // runs this one was started from, only touched by the probe's thread
+        private TaskMetrics[] outerTasks = new TaskMetrics[4];
+        private long[] outerStarts = new long[4];
+        private int depth;
+
+        private Probe(Thread thread) {
+            this.thread = thread;
+        }
+
+        private void enter(TaskMetrics task, long startNanos) {
+            if (depth == outerTasks.length) {
+                outerTasks = Arrays.copyOf(outerTasks, depth * 2);
+                outerStarts = Arrays.copyOf(outerStarts, depth * 2);
+            }
+
+            outerTasks[depth] = this.task;
+            outerStarts[depth++] = started;
+
+            this.task = task;
+            started = startNanos;
+        }
+
+        /**
+         * Marks the end of the run, and watches the run it was started from again, if any.
+         */
+        void exit() {
+            TaskMetrics outer = outerTasks[--depth];
+            outerTasks[depth] = null;
+
+            // cleared first, so the monitor never pairs the outer task with this run's start time
+            started = 0L;
+            task = outer;
+            started = outerStarts[depth];
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package me.croabeast.scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Completes a future with the result of a callable, or exceptionally with whatever it threw,
+ * so a failing task never leaves its future pending.
+ */
+final class SupplyingRunnable<T> implements Runnable {
+
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    private final Callable<? extends T> callable;
+
+    SupplyingRunnable(Callable<? extends T> callable) {
+        this.callable = callable;
+    }
+
+    static <T> SupplyingRunnable<T> of(Supplier<? extends T> supplier) {
+        return new SupplyingRunnable<>(supplier::get);
+    }
+
+    @Override
+    public void run() {
+        if (future.isDone()) return;
+
+        try {
+            future.complete(callable.call());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+}
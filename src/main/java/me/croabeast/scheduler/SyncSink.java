@@ -0,0 +1,95 @@
+package me.croabeast.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Hands values produced on any thread over to a consumer on a scheduler thread, applying all the values
+ * pushed since the last tick from a single task instead of scheduling one task per value.
+ * <p>
+ * Pushing is lock-free. The drain task is only scheduled while values are waiting, and with a budget
+ * it stops once the budget is spent and carries the rest over to the next tick. A failing value is
+ * logged and doesn't prevent the others.
+ *
+ * @param <T> The type of the values
+ */
+public final class SyncSink<T> {
+
+    private final Queue<T> queue = new ConcurrentLinkedQueue<>();
+
+    private final Function<Runnable, ReusableTask> factory;
+    private final Consumer<? super T> consumer;
+    private final long budgetNanos;
+    private final Runnable drain;
+
+    private volatile ReusableTask task;
+
+    SyncSink(Function<Runnable, ReusableTask> factory, Consumer<? super T> consumer, long budgetNanos) {
+        this.factory = factory;
+        this.consumer = consumer;
+        this.budgetNanos = budgetNanos <= 0 ? Long.MAX_VALUE : budgetNanos;
+        this.drain = GlobalScheduler.labeled(SchedulerMetrics.labelOf(consumer), this::drain);
+    }
+
+    /**
+     * Queues a value to be applied on the next tick.
+     *
+     * @param value The value to apply
+     */
+    public void push(T value) {
+        queue.add(value);
+
+        // cheap volatile read first, so concurrent producers don't all race on the pending flag
+        ReusableTask task = task();
+        if (task.isPending() || task.schedule() || task.isPending()) return;
+
+        // refused without a run pending: stopped in a way the task can't tell, so it's replaced
+        task = renew(task);
+        if (task.schedule() || task.isPending()) return;
+
+        // only a retired entity refuses a freshly prepared task, nothing would ever drain
+        queue.clear();
+    }
+
+    /**
+     * @return true if no value is waiting to be applied, false otherwise
+     */
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    private ReusableTask task() {
+        ReusableTask task = this.task;
+
+        // the drain task goes away with cancelAll(), so a new one is prepared on demand
+        return task == null || task.isCancelled() ? renew(task) : task;
+    }
+
+    private synchronized ReusableTask renew(ReusableTask stale) {
+        if (task != stale) return task;
+
+        if (stale != null) stale.cancel();
+        return task = factory.apply(drain);
+    }
+
+    private void drain() {
+        long start = System.nanoTime();
+        T value;
+
+        while ((value = queue.poll()) != null) {
+            try {
+                consumer.accept(value);
+            } catch (Throwable t) {
+                task.getPlugin().getLogger().log(Level.WARNING, "Sync sink generated an exception", t);
+            }
+
+            if (System.nanoTime() - start >= budgetNanos) {
+                if (!queue.isEmpty()) task.schedule(1L);
+                return;
+            }
+        }
+    }
+}
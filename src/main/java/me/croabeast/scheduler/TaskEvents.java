@@ -0,0 +1,51 @@
+package me.croabeast.scheduler;
+
+/**
+ * Emits the Java Flight Recorder events of the scheduled tasks: submit, start, end, cancel and exception.
+ * <p>
+ * The events themselves live in {@link JfrEvents}, which is only loaded when the runtime ships the
+ * {@code jdk.jfr} module, so Java 8 builds without it still run. While no recording enables them,
+ * each hook costs a check of the event's enabled flag and allocates nothing.
+ */
+final class TaskEvents {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private TaskEvents() {}
+
+    private static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, TaskEvents.class.getClassLoader());
+            return JfrEvents.init();
+        } catch (Throwable t) {
+            // missing before 8u262, and on runtimes built without the module
+            return false;
+        }
+    }
+
+    /**
+     * Records a submitted run, due after the given delay, and the period of the runs after it.
+     */
+    static void submitted(TaskMetrics task, long delayNanos, long periodNanos) {
+        if (AVAILABLE) JfrEvents.submitted(task, delayNanos, periodNanos);
+    }
+
+    /**
+     * @return The begun end event of the run, to give to {@link #ended(Object)}, or null when not recording
+     */
+    static Object started(TaskMetrics task) {
+        return AVAILABLE ? JfrEvents.started(task) : null;
+    }
+
+    static void failed(TaskMetrics task, Throwable throwable) {
+        if (AVAILABLE) JfrEvents.failed(task, throwable);
+    }
+
+    static void ended(Object event) {
+        if (event != null) JfrEvents.ended(event);
+    }
+
+    static void cancelled(TaskMetrics task) {
+        if (AVAILABLE) JfrEvents.cancelled(task);
+    }
+}
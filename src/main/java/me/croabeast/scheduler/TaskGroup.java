@@ -0,0 +1,599 @@
+package me.croabeast.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A scope of tasks scheduled through a {@link GlobalScheduler}, to tear down everything an arena,
+ * a session or any other short-lived feature scheduled in a single call.
+ * <p>
+ * A group is itself a scheduler: every task scheduled through it, on any lane, is a member of
+ * the group until it finishes or is cancelled, and {@link #cancel()} cancels all of them at a
+ * cost proportional to the group's size. Groups can be nested through {@link #createGroup()},
+ * and the tasks of a child group are members of its parents too.
+ * <p>
+ * Once {@link #close() closed} or cancelled, a group rejects new tasks, and its
+ * {@link #getCompletion() completion} future completes when its last member and child group
+ * are done. Repeating and {@link ReusableTask reusable} tasks are only done once cancelled.
+ * Entity tasks leave the group when their entity is removed, while tasks cancelled behind the
+ * group's back, through the scheduler it was created from, are noticed when the group is closed.
+ * Tasks queued in a {@link TaskPriority priority} lane are kept through the scheduler's
+ * {@link GlobalScheduler#cancelAll() cancelAll()}, and only leave the group once they run, which
+ * after such a cancel waits until the next priority task is queued.
+ */
+public final class TaskGroup implements GlobalScheduler {
+
+    private static final AtomicIntegerFieldUpdater<Member> DONE = AtomicIntegerFieldUpdater.newUpdater(Member.class, "done");
+
+    private final Set<Member> members = ConcurrentHashMap.newKeySet();
+    private final Set<TaskGroup> children = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final Coalescer coalescer = new Coalescer(this);
+
+    private final GlobalScheduler scheduler;
+    private final TaskGroup parent;
+
+    private volatile boolean closed, cancelled;
+
+    TaskGroup(GlobalScheduler scheduler, TaskGroup parent) {
+        this.scheduler = Objects.requireNonNull(scheduler);
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a child group, whose tasks are members of this group too. Closing or cancelling this
+     * group closes or cancels the child, and this group only completes after the child does.
+     *
+     * @return The child group
+     * @throws IllegalStateException if this group is closed
+     */
+    @Override
+    public TaskGroup createGroup() {
+        TaskGroup child = new TaskGroup(this, this);
+
+        children.add(child);
+        if (closed) {
+            children.remove(child);
+            throw new IllegalStateException("Task group is closed");
+        }
+
+        if (cancelled) child.cancel();
+        return child;
+    }
+
+    /**
+     * Stops accepting tasks. The {@link #getCompletion() completion} future completes once the
+     * current members and child groups are done.
+     */
+    public void close() {
+        closed = true;
+        children.forEach(TaskGroup::close);
+
+        members.removeIf(member -> {
+            RunnableTask task = member.task;
+            return task != null && task.isCancelled() && DONE.compareAndSet(member, 0, 1);
+        });
+        tryComplete();
+    }
+
+    /**
+     * Closes this group and cancels every member and child group. The {@link #getCompletion()
+     * completion} future is completed normally once they're gone.
+     */
+    public void cancel() {
+        cancelled = closed = true;
+
+        children.forEach(TaskGroup::cancel);
+        cancelMembers(member -> true);
+        coalescer.clear();
+        tryComplete();
+    }
+
+    /**
+     * @return true if this group no longer accepts tasks, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return true if this group was cancelled, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return The number of tasks of this group, and of its child groups, that aren't done yet
+     */
+    public int size() {
+        return members.size();
+    }
+
+    /**
+     * Returns a future completed once this group is closed and every member and child group is done.
+     *
+     * @return The completion future of this group
+     */
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    private void tryComplete() {
+        if (!closed || !members.isEmpty() || !children.isEmpty() || !completion.complete(null)) return;
+
+        if (parent != null) {
+            parent.children.remove(this);
+            parent.tryComplete();
+        }
+    }
+
+    private void cancelMembers(Predicate<Member> filter) {
+        for (Member member : members)
+            if (filter.test(member)) member.cancel();
+    }
+
+    private <M extends Member> M join(M member) {
+        members.add(member);
+        if (closed) {
+            member.finish();
+            throw new IllegalStateException("Task group is " + (cancelled ? "cancelled" : "closed"));
+        }
+        return member;
+    }
+
+    private RunnableTask submit(Runnable runnable, Object key, boolean repeating, Function<Member, RunnableTask> scheduling) {
+        Member member = join(new Member(runnable, key, repeating));
+        try {
+            return member.bind(scheduling.apply(member));
+        } catch (RuntimeException e) {
+            member.finish();
+            throw e;
+        }
+    }
+
+    private ReusableTask prepare(Runnable runnable, Object key, Function<Runnable, ReusableTask> preparing) {
+        PreparedMember member = join(new PreparedMember(runnable, key));
+        try {
+            member.bind(preparing.apply(member));
+            return member;
+        } catch (RuntimeException e) {
+            member.finish();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isGlobalThread() {
+        return scheduler.isGlobalThread();
+    }
+
+    @Override
+    public boolean isTickThread() {
+        return scheduler.isTickThread();
+    }
+
+    @Override
+    public boolean isEntityThread(Entity entity) {
+        return scheduler.isEntityThread(entity);
+    }
+
+    @Override
+    public boolean isRegionThread(Location location) {
+        return scheduler.isRegionThread(location);
+    }
+
+    @Override
+    public RunnableTask runTask(Runnable runnable) {
+        return submit(runnable, null, false, scheduler::runTask);
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Runnable runnable, long delay) {
+        return submit(runnable, null, false, r -> scheduler.runTaskLater(r, delay));
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Runnable runnable, long delay, long period) {
+        return submit(runnable, null, true, r -> scheduler.runTaskTimer(r, delay, period));
+    }
+
+    @Deprecated
+    @Override
+    public RunnableTask runTask(Plugin plugin, Runnable runnable) {
+        return submit(runnable, null, false, r -> scheduler.runTask(plugin, r));
+    }
+
+    @Deprecated
+    @Override
+    public RunnableTask runTaskLater(Plugin plugin, Runnable runnable, long delay) {
+        return submit(runnable, null, false, r -> scheduler.runTaskLater(plugin, r, delay));
+    }
+
+    @Deprecated
+    @Override
+    public RunnableTask runTaskTimer(Plugin plugin, Runnable runnable, long delay, long period) {
+        return submit(runnable, null, true, r -> scheduler.runTaskTimer(plugin, r, delay, period));
+    }
+
+    @Override
+    public RunnableTask runTask(Location location, Runnable runnable) {
+        return submit(runnable, TaskIndex.keyOf(location), false, r -> scheduler.runTask(location, r));
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Location location, Runnable runnable, long delay) {
+        return submit(runnable, TaskIndex.keyOf(location), false, r -> scheduler.runTaskLater(location, r, delay));
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Location location, Runnable runnable, long delay, long period) {
+        return submit(runnable, TaskIndex.keyOf(location), true, r -> scheduler.runTaskTimer(location, r, delay, period));
+    }
+
+    @Override
+    public RunnableTask runTask(Entity entity, Runnable runnable) {
+        return runTask(entity, runnable, null);
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Entity entity, Runnable runnable, long delay) {
+        return runTaskLater(entity, runnable, null, delay);
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Entity entity, Runnable runnable, long delay, long period) {
+        return runTaskTimer(entity, runnable, null, delay, period);
+    }
+
+    @Override
+    public RunnableTask runTask(Entity entity, Runnable runnable, Runnable retired) {
+        return submit(runnable, TaskIndex.keyOf(entity), false, m -> scheduler.runTask(entity, m, m.retired(retired)));
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Entity entity, Runnable runnable, Runnable retired, long delay) {
+        return submit(runnable, TaskIndex.keyOf(entity), false, m -> scheduler.runTaskLater(entity, m, m.retired(retired), delay));
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Entity entity, Runnable runnable, Runnable retired, long delay, long period) {
+        return submit(runnable, TaskIndex.keyOf(entity), true, m -> scheduler.runTaskTimer(entity, m, m.retired(retired), delay, period));
+    }
+
+    @Override
+    public ReusableTask prepare(Runnable runnable) {
+        return prepare(runnable, null, scheduler::prepare);
+    }
+
+    @Override
+    public ReusableTask prepare(Location location, Runnable runnable) {
+        return prepare(runnable, TaskIndex.keyOf(location), r -> scheduler.prepare(location, r));
+    }
+
+    @Override
+    public ReusableTask prepare(Entity entity, Runnable runnable) {
+        return prepare(runnable, TaskIndex.keyOf(entity), r -> scheduler.prepare(entity, r));
+    }
+
+    @Override
+    public CompletableFuture<Void> runForEach(Collection<? extends Location> locations, Consumer<? super Location> action) {
+        // the scheduler picks how to visit the locations, so cancelling only skips the ones left
+        Member member = join(new Member(() -> {}, null, true));
+
+        CompletableFuture<Void> future = scheduler.runForEach(locations, location -> {
+            if (member.done == 0) action.accept(location);
+        });
+        future.whenComplete((v, e) -> member.finish());
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> parallelForEach(Collection<? extends Entity> entities, Consumer<? super Entity> action) {
+        Member member = join(new Member(() -> {}, null, true));
+
+        CompletableFuture<Void> future = scheduler.parallelForEach(entities, entity -> {
+            if (member.done == 0) action.accept(entity);
+        });
+        future.whenComplete((v, e) -> member.finish());
+        return future;
+    }
+
+    @Override
+    public boolean debounce(Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(null, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Location location, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(location, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Entity entity, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(entity, key, runnable, delay);
+    }
+
+    @Override
+    public boolean throttle(Object key, Runnable runnable, long period) {
+        return coalescer.throttle(null, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Location location, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(location, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Entity entity, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(entity, key, runnable, period);
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return scheduler.getLoadFactor();
+    }
+
+    @Override
+    public RunnableTask runTaskAsynchronously(Runnable runnable) {
+        return submit(runnable, null, false, scheduler::runTaskAsynchronously);
+    }
+
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay) {
+        return submit(runnable, null, false, r -> scheduler.runTaskLaterAsynchronously(r, delay));
+    }
+
+    @Override
+    public RunnableTask runTaskTimerAsynchronously(Runnable runnable, long delay, long period) {
+        return submit(runnable, null, true, r -> scheduler.runTaskTimerAsynchronously(r, delay, period));
+    }
+
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay, TimeUnit unit) {
+        return submit(runnable, null, false, r -> scheduler.runTaskLaterAsynchronously(r, delay, unit));
+    }
+
+    @Override
+    public RunnableTask runTaskAtFixedRateAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        return submit(runnable, null, true, r -> scheduler.runTaskAtFixedRateAsynchronously(r, delay, period, unit));
+    }
+
+    @Override
+    public RunnableTask runTaskWithFixedDelayAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        return submit(runnable, null, true, r -> scheduler.runTaskWithFixedDelayAsynchronously(r, delay, period, unit));
+    }
+
+    @Override
+    public boolean setVirtualThreads(boolean enabled) {
+        return scheduler.setVirtualThreads(enabled);
+    }
+
+    @Override
+    public boolean isVirtualThreads() {
+        return scheduler.isVirtualThreads();
+    }
+
+    @Override
+    public SchedulerMetrics getMetrics() {
+        return scheduler.getMetrics();
+    }
+
+    @Deprecated
+    @Override
+    public RunnableTask runTaskAsynchronously(Plugin plugin, Runnable runnable) {
+        return submit(runnable, null, false, r -> scheduler.runTaskAsynchronously(plugin, r));
+    }
+
+    @Deprecated
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Plugin plugin, Runnable runnable, long delay) {
+        return submit(runnable, null, false, r -> scheduler.runTaskLaterAsynchronously(plugin, r, delay));
+    }
+
+    @Deprecated
+    @Override
+    public RunnableTask runTaskTimerAsynchronously(Plugin plugin, Runnable runnable, long delay, long period) {
+        return submit(runnable, null, true, r -> scheduler.runTaskTimerAsynchronously(plugin, r, delay, period));
+    }
+
+    // executed tasks are scheduled with a handle, so close() notices when the scheduler drops them
+    @Override
+    public void execute(Runnable runnable) {
+        runTask(runnable);
+    }
+
+    @Override
+    public void execute(Location location, Runnable runnable) {
+        runTask(location, runnable);
+    }
+
+    @Override
+    public void execute(Entity entity, Runnable runnable) {
+        execute(entity, runnable, null);
+    }
+
+    @Override
+    public void execute(Entity entity, Runnable runnable, Runnable retired) {
+        runTask(entity, runnable, retired);
+    }
+
+    @Override
+    public void execute(TaskPriority priority, Runnable runnable) {
+        // no handle to check on close(), but the priority lanes never drop what they queued
+        scheduler.execute(priority, join(new Member(runnable, null, false)));
+    }
+
+    @Override
+    public void setPriorityBudget(long budgetNanos) {
+        scheduler.setPriorityBudget(budgetNanos);
+    }
+
+    @Override
+    public void cancel(int taskId) {
+        cancelMembers(member -> {
+            RunnableTask task = member.task;
+            return task != null && task.getTaskId() == taskId;
+        });
+    }
+
+    @Override
+    public void cancel(Location location) {
+        Object key = TaskIndex.keyOf(location);
+        cancelMembers(member -> key.equals(member.key));
+    }
+
+    @Override
+    public void cancel(Entity entity) {
+        Object key = TaskIndex.keyOf(entity);
+        cancelMembers(member -> key.equals(member.key));
+    }
+
+    /**
+     * Cancels every member of this group, which stays open for new tasks.
+     */
+    @Override
+    public void cancelAll() {
+        cancelMembers(member -> true);
+        coalescer.clear();
+    }
+
+    @Override
+    public void cancelAll(Plugin plugin) {
+        cancelMembers(member -> {
+            RunnableTask task = member.task;
+            return task != null && task.getPlugin() == plugin;
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "TaskGroup{scheduler=" + scheduler + ", size=" + members.size() + ", closed=" + closed + '}';
+    }
+
+    /**
+     * A task of the group: the runnable handed to the scheduler, and the handle handed back to the
+     * caller, so membership costs one object per task.
+     */
+    private class Member extends LabeledRunnable implements RunnableTask {
+
+        final Object key;
+        final boolean repeating;
+
+        volatile int done;
+        volatile RunnableTask task;
+
+        Member(Runnable runnable, Object key, boolean repeating) {
+            super(SchedulerMetrics.labelOf(runnable), runnable);
+            this.key = key;
+            this.repeating = repeating;
+        }
+
+        RunnableTask bind(RunnableTask task) {
+            this.task = task;
+            // cancelled while the scheduler was still handing out the task
+            if (done != 0 && task != null) task.cancel();
+            return this;
+        }
+
+        /**
+         * Wraps the retired callback of an entity task, so the member leaves the group with its entity.
+         */
+        Runnable retired(Runnable retired) {
+            return () -> {
+                if (finish() && retired != null) retired.run();
+            };
+        }
+
+        boolean finish() {
+            if (!DONE.compareAndSet(this, 0, 1)) return false;
+
+            members.remove(this);
+            tryComplete();
+            return true;
+        }
+
+        @Override
+        public void run() {
+            if (done != 0) return;
+
+            try {
+                runnable.run();
+            } finally {
+                if (!repeating) finish();
+            }
+        }
+
+        @Override
+        public int getTaskId() {
+            return task.getTaskId();
+        }
+
+        @Override
+        public void cancel() {
+            finish();
+
+            RunnableTask task = this.task;
+            if (task != null) task.cancel();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return task.isCancelled();
+        }
+
+        @Override
+        public Plugin getPlugin() {
+            return task.getPlugin();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return task.isRunning();
+        }
+
+        @Override
+        public boolean isRepeating() {
+            return task.isRepeating();
+        }
+
+        @Override
+        public TaskMetrics getMetrics() {
+            return task.getMetrics();
+        }
+
+        @Override
+        public String toString() {
+            return "TaskGroup.Member{task=" + task + '}';
+        }
+    }
+
+    private final class PreparedMember extends Member implements ReusableTask {
+
+        PreparedMember(Runnable runnable, Object key) {
+            super(runnable, key, true);
+        }
+
+        @Override
+        public boolean schedule(long delay) {
+            return done == 0 && ((ReusableTask) task).schedule(delay);
+        }
+
+        @Override
+        public boolean isPending() {
+            return ((ReusableTask) task).isPending();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package me.croabeast.scheduler;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live tasks of a lane, bucketed by what they were scheduled against: the chunk of a location,
+ * or the unique id of an entity. Keys never hold on to worlds or entities.
+ * <p>
+ * Buckets are only mutated inside {@code compute} calls, which lock their map bin, so plain sets
+ * are enough, and adding stays O(1). Empty buckets are dropped right away. Tasks cancelled behind the
+ * library's back are pruned once their bucket grows past a few dozen tasks.
+ */
+final class TaskIndex {
+
+    private static final int PRUNE_SIZE = 64;
+
+    private final ConcurrentHashMap<Object, Set<RunnableTask>> buckets = new ConcurrentHashMap<>();
+
+    static Object keyOf(Location location) {
+        return keyOf(location, 4);
+    }
+
+    /**
+     * @param shift 4 to key by chunk, 8 by 16x16 chunk section
+     */
+    static Object keyOf(Location location, int shift) {
+        return new ChunkKey(location.getWorld().getUID(), location.getBlockX() >> shift, location.getBlockZ() >> shift);
+    }
+
+    static Object keyOf(Entity entity) {
+        return entity.getUniqueId();
+    }
+
+    void add(Object key, RunnableTask task) {
+        Set<RunnableTask> bucket = buckets.compute(key, (k, set) -> {
+            if (set == null) set = new HashSet<>();
+            set.add(task);
+            return set;
+        });
+
+        // read outside the bin lock, it's only a hint; pruning at powers of two keeps adding O(1) amortized
+        int size = bucket.size();
+        if (size >= PRUNE_SIZE && (size & (size - 1)) == 0) prune(key);
+    }
+
+    /**
+     * Drops the tasks of a bucket that were cancelled behind the library's back, and so never removed
+     * themselves, and cancels them through their own wrapper so they can clean up after themselves.
+     */
+    private void prune(Object key) {
+        List<RunnableTask> stale = new ArrayList<>();
+
+        buckets.computeIfPresent(key, (k, set) -> {
+            set.removeIf(t -> t.isCancelled() && stale.add(t));
+            return set.isEmpty() ? null : set;
+        });
+
+        // cancelling calls back into remove(), so it's done outside of the compute call
+        stale.forEach(RunnableTask::cancel);
+    }
+
+    void remove(Object key, RunnableTask task) {
+        buckets.computeIfPresent(key, (k, set) -> set.remove(task) && set.isEmpty() ? null : set);
+    }
+
+    /**
+     * Removes the bucket of the key and cancels its tasks.
+     */
+    void cancel(Object key) {
+        Set<RunnableTask> set = buckets.remove(key);
+        if (set != null) set.forEach(RunnableTask::cancel);
+    }
+
+    /**
+     * Removes and cancels the tasks of a plugin in every bucket. Tasks of any plugin that were cancelled
+     * behind the library's back, and so never removed themselves, are dropped on the way.
+     */
+    void cancelAll(Plugin plugin) {
+        List<RunnableTask> removed = new ArrayList<>();
+
+        for (Object key : buckets.keySet())
+            buckets.computeIfPresent(key, (k, set) -> {
+                set.removeIf(t -> {
+                    if (t.getPlugin() != plugin) return t.isCancelled();
+                    removed.add(t);
+                    return true;
+                });
+                return set.isEmpty() ? null : set;
+            });
+
+        // cancelling calls back into remove(), so it's done outside of the compute calls
+        removed.forEach(RunnableTask::cancel);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class ChunkKey {
+        private final UUID world;
+        private final int x, z;
+    }
+}
@@ -0,0 +1,23 @@
+package me.croabeast.scheduler;
+
+/**
+ * The kind of thread a task was scheduled to run on.
+ */
+public enum TaskLane {
+    /**
+     * The global region (Folia & Paper) or main thread (Bukkit).
+     */
+    GLOBAL,
+    /**
+     * The region owning a location.
+     */
+    REGION,
+    /**
+     * The region owning an entity.
+     */
+    ENTITY,
+    /**
+     * An asynchronous thread.
+     */
+    ASYNC
+}
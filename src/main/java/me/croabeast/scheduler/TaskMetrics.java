@@ -0,0 +1,159 @@
+package me.croabeast.scheduler;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Execution metrics of a single scheduled task.
+ * <p>
+ * Every run is counted. Run times are only measured for the runs picked by the scheduler's
+ * {@link SchedulerMetrics#getSampleRate() sample rate}, which {@link #getTimedRuns()} counts,
+ * so the total and average cover those runs only. Recording allocates nothing.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class TaskMetrics {
+
+    final SchedulerMetrics owner;
+    private final SchedulerMetrics.Aggregate laneStats, labelStats, pluginStats;
+    final Plugin plugin;
+
+    /**
+     * The label the task is reported under in the scheduler snapshots.
+     */
+    @Getter
+    private final String label;
+    /**
+     * The lane the task was scheduled on.
+     */
+    @Getter
+    private final TaskLane lane;
+
+    /**
+     * The number of times the task ran, timed or not.
+     */
+    @Getter
+    private volatile long runCount;
+    /**
+     * The number of runs whose execution time was measured.
+     */
+    @Getter
+    private volatile long timedRuns;
+    /**
+     * The sum of the measured execution times, in nanoseconds.
+     */
+    @Getter
+    private volatile long totalNanos;
+    /**
+     * The execution time of the last measured run, in nanoseconds.
+     */
+    @Getter
+    private volatile long lastNanos;
+    /**
+     * The longest measured execution time, in nanoseconds.
+     */
+    @Getter
+    private volatile long maxNanos;
+    /**
+     * The number of runs that threw an exception.
+     */
+    @Getter
+    private volatile long failures;
+    /**
+     * The exception thrown by the last failing run, if any.
+     */
+    @Getter @Nullable
+    private volatile Throwable lastException;
+
+    // the delay and due time of the next run, only kept for flight recordings
+    long delayNanos, periodNanos, dueNanos;
+
+    /**
+     * @return The average measured execution time, in nanoseconds
+     */
+    public double getAverageNanos() {
+        long timed = timedRuns;
+        return timed == 0 ? 0 : (double) totalNanos / timed;
+    }
+
+    void run(Runnable runnable) {
+        StallWatchdog watchdog = owner.watchdog;
+        StallWatchdog.Probe probe = watchdog == null || lane == TaskLane.ASYNC ?
+                null : StallWatchdog.enter(this, System.nanoTime());
+        Object event = TaskEvents.started(this);
+
+        try {
+            record(runnable);
+        } catch (Throwable t) {
+            TaskEvents.failed(this, t);
+            throw t;
+        } finally {
+            TaskEvents.ended(event);
+            if (probe != null) probe.exit();
+        }
+    }
+
+    /**
+     * Tells flight recordings the task was submitted, to run after the delay and then every period.
+     */
+    void submitted(long delayNanos, long periodNanos) {
+        TaskEvents.submitted(this, delayNanos, periodNanos);
+    }
+
+    /**
+     * Same as {@link #submitted(long, long)}, in ticks.
+     */
+    void submittedTicks(long delay, long period) {
+        TaskEvents.submitted(this, Math.max(delay, 0L) * TimingWheel.TICK_NANOS, Math.max(period, 0L) * TimingWheel.TICK_NANOS);
+    }
+
+    void cancelled() {
+        TaskEvents.cancelled(this);
+    }
+
+    // a task never runs on two threads at once, so plain volatile writes are enough here
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    private void record(Runnable runnable) {
+        if (!owner.isEnabled()) {
+            runnable.run();
+            return;
+        }
+
+        int rate = owner.getSampleRate();
+        boolean timed = rate <= 1 || runCount % rate == 0;
+
+        runCount++;
+        long start = timed ? System.nanoTime() : 0L;
+
+        try {
+            runnable.run();
+        } catch (Throwable t) {
+            failures++;
+            lastException = t;
+
+            laneStats.fail();
+            labelStats.fail();
+            pluginStats.fail();
+            throw t;
+        } finally {
+            if (timed) {
+                long elapsed = System.nanoTime() - start;
+
+                timedRuns++;
+                totalNanos += elapsed;
+                lastNanos = elapsed;
+                if (elapsed > maxNanos) maxNanos = elapsed;
+
+                laneStats.record(elapsed);
+                labelStats.record(elapsed);
+                pluginStats.record(elapsed);
+            } else {
+                laneStats.count();
+                labelStats.count();
+                pluginStats.count();
+            }
+        }
+    }
+}
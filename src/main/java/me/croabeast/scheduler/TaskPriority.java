@@ -0,0 +1,19 @@
+package me.croabeast.scheduler;
+
+/**
+ * The lane a task waits in when scheduled through {@link GlobalScheduler#execute(TaskPriority, Runnable)}.
+ */
+public enum TaskPriority {
+    /**
+     * Runs on the next tick, ahead of every other lane and regardless of the budget.
+     */
+    HIGH,
+    /**
+     * Runs after the high lane, within the per-tick budget.
+     */
+    NORMAL,
+    /**
+     * Runs with whatever is left of the per-tick budget after the normal lane.
+     */
+    LOW
+}
@@ -0,0 +1,170 @@
+package me.croabeast.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * An int-keyed map of live tasks that never boxes its keys.
+ * <p>
+ * Keys are spread over a fixed number of stripes, each an open-addressing table with linear probing
+ * and backward-shift deletion, guarded by its own lock. Putting and removing allocate nothing unless
+ * a stripe has to grow. Id {@code 0} marks empty slots and can't be used as a key.
+ */
+final class TaskRegistry<T> {
+
+    private static final int STRIPES = 16, STRIPE_SHIFT = 28;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    TaskRegistry() {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private Stripe stripe(int hash) {
+        return stripes[hash >>> STRIPE_SHIFT];
+    }
+
+    void put(int id, T task) {
+        if (id == 0) throw new IllegalArgumentException("Task id 0 is reserved");
+
+        int hash = mix(id);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            stripe.put(id, hash, task);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        int hash = mix(id);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(id, hash);
+            return slot < 0 ? null : (T) stripe.values[slot];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    T remove(int id) {
+        int hash = mix(id);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(id, hash);
+            if (slot < 0) return null;
+
+            T task = (T) stripe.values[slot];
+            stripe.delete(slot);
+            return task;
+        }
+    }
+
+    /**
+     * Removes the id only while it's still mapped to the task.
+     */
+    boolean remove(int id, T task) {
+        int hash = mix(id);
+        Stripe stripe = stripe(hash);
+        synchronized (stripe) {
+            int slot = stripe.find(id, hash);
+            if (slot < 0 || stripe.values[slot] != task) return false;
+
+            stripe.delete(slot);
+            return true;
+        }
+    }
+
+    /**
+     * Calls the action for a copy of the live tasks, outside of any lock, so it may modify the registry.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(Consumer<? super T> action) {
+        List<T> copy = new ArrayList<>();
+
+        for (Stripe stripe : stripes)
+            synchronized (stripe) {
+                for (Object value : stripe.values)
+                    if (value != null) copy.add((T) value);
+            }
+
+        copy.forEach(action);
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes)
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        return size;
+    }
+
+    private static final class Stripe {
+
+        private int[] keys = new int[16];
+        private Object[] values = new Object[16];
+        private int size;
+
+        private int find(int id, int hash) {
+            int mask = keys.length - 1;
+
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int key = keys[slot];
+                if (key == id) return slot;
+                if (key == 0) return -1;
+            }
+        }
+
+        private void put(int id, int hash, Object task) {
+            int mask = keys.length - 1, slot = hash & mask;
+
+            while (keys[slot] != 0 && keys[slot] != id) slot = (slot + 1) & mask;
+            if (keys[slot] == 0) {
+                keys[slot] = id;
+                size++;
+            }
+            values[slot] = task;
+
+            if (size * 4 >= keys.length * 3) grow();
+        }
+
+        private void delete(int slot) {
+            int mask = keys.length - 1;
+
+            // shifts back the entries of the probe chain that would become unreachable through the hole
+            for (int next = (slot + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+
+                boolean reachable = slot <= next ?
+                        slot < home && home <= next :
+                        slot < home || home <= next;
+                if (reachable) continue;
+
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                slot = next;
+            }
+
+            keys[slot] = 0;
+            values[slot] = null;
+            size--;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+
+            keys = new int[oldKeys.length * 2];
+            values = new Object[oldKeys.length * 2];
+            size = 0;
+
+            for (int i = 0; i < oldKeys.length; i++)
+                if (oldKeys[i] != 0) put(oldKeys[i], mix(oldKeys[i]), oldValues[i]);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package me.croabeast.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hierarchical timing wheel with a resolution of one server tick, driven by a single daemon thread.
+ * <p>
+ * Four levels of 64 slots cover about 9.7 days before an entry has to be re-cascaded. Scheduling and
+ * cancelling from any thread only push the entry to a lock-free queue, and the wheel thread links or
+ * unlinks it from its slot's list on the next tick, so both are O(1) and cancelled entries are released
+ * within a tick instead of lingering until their deadline.
+ * <p>
+ * Expired entries only get {@link Timeout#expire()} called on the wheel thread, which must hand the actual
+ * work to another executor. The thread exits after a while without entries, so an idle wheel doesn't pin
+ * the plugin class loader, and starts again on the next schedule call.
+ */
+final class TimingWheel {
+
+    static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    static final TimingWheel INSTANCE = new TimingWheel();
+
+    private static final int BITS = 6, SLOTS = 1 << BITS, MASK = SLOTS - 1, LEVELS = 4;
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Queue<Timeout> inserts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancels = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile Thread worker;
+    private volatile boolean idle;
+
+    // only touched by the wheel thread
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS];
+    private long startNanos = System.nanoTime();
+    private long tick;
+    private int size;
+
+    private TimingWheel() {}
+
+    void schedule(Timeout timeout) {
+        inserts.add(timeout);
+
+        if (!running.get() && running.compareAndSet(false, true)) {
+            Thread thread = new Thread(this::work, "GlobalScheduler-TimingWheel");
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+            return;
+        }
+
+        if (idle) LockSupport.unpark(worker);
+    }
+
+    private void work() {
+        long idleSince = System.nanoTime();
+
+        while (true) {
+            drain();
+
+            if (size > 0) {
+                long wait = startNanos + (tick + 1) * TICK_NANOS - System.nanoTime();
+                if (wait > 0)
+                    LockSupport.parkNanos(this, wait);
+                else
+                    advance();
+
+                idleSince = System.nanoTime();
+                continue;
+            }
+
+            if (System.nanoTime() - idleSince >= IDLE_NANOS) {
+                running.set(false);
+                if (inserts.isEmpty() || !running.compareAndSet(false, true)) return;
+                continue;
+            }
+
+            idle = true;
+            if (inserts.isEmpty()) LockSupport.parkNanos(this, IDLE_NANOS);
+            idle = false;
+        }
+    }
+
+    private void drain() {
+        Timeout timeout;
+
+        while ((timeout = inserts.poll()) != null) {
+            if (timeout.state != Timeout.PENDING) continue;
+
+            // an empty wheel re-aligns its current tick with the clock
+            if (size == 0) startNanos = System.nanoTime() - tick * TICK_NANOS;
+            place(timeout, tick + 1);
+        }
+
+        while ((timeout = cancels.poll()) != null) unlink(timeout);
+    }
+
+    private void place(Timeout timeout, long earliest) {
+        long deadline = -Math.floorDiv(startNanos - timeout.deadlineNanos, TICK_NANOS);
+        long t = tick, d = Math.max(deadline, earliest);
+
+        int level = 0;
+        while (level < LEVELS - 1 && (d >>> (BITS * (level + 1))) != (t >>> (BITS * (level + 1)))) level++;
+
+        int slot = (int) ((d >>> (BITS * level)) & MASK);
+        Timeout head = slots[level][slot];
+
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = head;
+
+        if (head != null) head.prev = timeout;
+        slots[level][slot] = timeout;
+
+        timeout.linked = true;
+        size++;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (!timeout.linked) return;
+
+        if (timeout.prev != null)
+            timeout.prev.next = timeout.next;
+        else
+            slots[timeout.level][timeout.slot] = timeout.next;
+
+        if (timeout.next != null) timeout.next.prev = timeout.prev;
+
+        timeout.prev = timeout.next = null;
+        timeout.linked = false;
+        size--;
+    }
+
+    private Timeout detach(int level, int slot) {
+        Timeout head = slots[level][slot];
+        slots[level][slot] = null;
+
+        for (Timeout t = head; t != null; t = t.next) {
+            t.linked = false;
+            size--;
+        }
+        return head;
+    }
+
+    private void advance() {
+        long t = ++tick;
+
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((t & ((1L << (BITS * level)) - 1)) != 0) continue;
+
+            Timeout timeout = detach(level, (int) ((t >>> (BITS * level)) & MASK));
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.state == Timeout.PENDING) place(timeout, t);
+                timeout = next;
+            }
+        }
+
+        Timeout timeout = detach(0, (int) (t & MASK));
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            timeout.prev = timeout.next = null;
+            expire(timeout);
+            timeout = next;
+        }
+    }
+
+    private void expire(Timeout timeout) {
+        boolean repeating = timeout.periodNanos > 0;
+
+        if (repeating) {
+            if (timeout.state != Timeout.PENDING) return;
+        } else if (!Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED))
+            return;
+
+        try {
+            timeout.expire();
+        } catch (Throwable ignored) {
+            // expire() only hands work over, a failure there must not kill the wheel
+        }
+
+        if (repeating && timeout.state == Timeout.PENDING) {
+            timeout.deadlineNanos += timeout.periodNanos;
+            place(timeout, tick + 1);
+        }
+    }
+
+    /**
+     * An entry of the wheel. Subclasses decide what happens when it expires.
+     */
+    abstract static class Timeout {
+
+        private static final int PENDING = 0, CANCELLED = 1, EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private volatile int state;
+
+        private long deadlineNanos, periodNanos;
+        private Timeout prev, next;
+        private int level, slot;
+        private boolean linked;
+
+        /**
+         * Called on the wheel thread when the entry expires. Must return quickly.
+         */
+        abstract void expire();
+
+        /**
+         * Queues this entry to expire after the delay, and then every period if it's positive.
+         */
+        final void schedule(long delayNanos, long periodNanos) {
+            this.deadlineNanos = System.nanoTime() + delayNanos;
+            this.periodNanos = periodNanos;
+            INSTANCE.schedule(this);
+        }
+
+        /**
+         * @return true if this call cancelled the entry, false if it had already expired or been cancelled
+         */
+        final boolean cancelTimeout() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) return false;
+
+            INSTANCE.cancels.add(this);
+            return true;
+        }
+
+        final boolean isTimeoutCancelled() {
+            return state == CANCELLED;
+        }
+    }
+}
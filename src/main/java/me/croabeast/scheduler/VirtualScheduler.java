@@ -0,0 +1,586 @@
+package me.croabeast.scheduler;
+
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * An in-memory scheduler driven by a virtual tick clock, to load-test and replay the scheduling
+ * patterns of a plugin without a running server.
+ * <p>
+ * Nothing runs until the clock is advanced through {@link #tick()} or {@link #advance(long)},
+ * which run every task due in order of deadline and submission on the calling thread, as fast
+ * as it can go. Runs are therefore deterministic: the same calls always produce the same order.
+ * <p>
+ * The lanes of a regionized server are simulated: while a task runs, the calling thread acts as
+ * the global region, as the region owning the task's location or entity, or as an async thread,
+ * and {@link #isGlobalThread()}, {@link #isRegionThread(Location)} and {@link #isEntityThread(Entity)}
+ * answer accordingly. Regions are 16x16 chunk sections, and entity tasks follow their entity's
+ * current location, retiring once it's no longer {@link Entity#isValid() valid}.
+ * <p>
+ * Async tasks run during ticks too, starting on the tick after they're scheduled, and delays in
+ * real time units are rounded up to whole ticks of 50 ms. The virtual clock never lags, so the
+ * {@link #getLoadFactor() load factor} is always 1.0.
+ */
+public final class VirtualScheduler implements GlobalScheduler {
+
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final Object GLOBAL = new Object(), ASYNC = new Object();
+
+    private final PriorityQueue<VirtualTask> queue = new PriorityQueue<>();
+    private final TaskRegistry<VirtualTask> tasks = new TaskRegistry<>();
+    private final Coalescer coalescer = new Coalescer(this);
+    private final PriorityPump pump = new PriorityPump(this);
+    private final AtomicInteger ids = new AtomicInteger();
+    private final Object clock = new Object();
+
+    private final Plugin plugin;
+
+    @Getter
+    private final SchedulerMetrics metrics = new SchedulerMetrics();
+
+    /**
+     * The number of ticks the clock has advanced.
+     */
+    @Getter
+    private volatile long currentTick;
+    private long sequence;
+
+    // what the ticking thread is acting as, only set while a task runs
+    private volatile Thread tickThread;
+    private volatile Object context;
+
+    /**
+     * Creates a virtual scheduler for the plugin. It isn't returned by {@link GlobalScheduler#getScheduler(Plugin)}
+     * unless {@link #install(Plugin) installed}.
+     *
+     * @param plugin The plugin the tasks are scheduled for
+     */
+    public VirtualScheduler(@NotNull Plugin plugin) {
+        this.plugin = Objects.requireNonNull(plugin);
+    }
+
+    /**
+     * Creates a virtual scheduler and makes it the one {@link GlobalScheduler#getScheduler(Plugin)} returns
+     * for the plugin, so code under test picks it up without changes.
+     *
+     * @param plugin The plugin the tasks are scheduled for
+     * @return The installed scheduler
+     */
+    @NotNull
+    public static VirtualScheduler install(@NotNull Plugin plugin) {
+        VirtualScheduler scheduler = new VirtualScheduler(plugin);
+        SchedulerUtils.install(plugin, scheduler);
+        return scheduler;
+    }
+
+    /**
+     * Advances the clock by one tick and runs every task due by then.
+     */
+    public void tick() {
+        synchronized (clock) {
+            long now;
+            synchronized (queue) {
+                now = ++currentTick;
+            }
+
+            tickThread = Thread.currentThread();
+            try {
+                VirtualTask task;
+                // tasks scheduled meanwhile are due on a later tick, so this always ends
+                while ((task = poll(now)) != null) task.runAt(now);
+            } finally {
+                context = null;
+                tickThread = null;
+            }
+        }
+    }
+
+    /**
+     * Advances the clock by the given number of ticks, running the due tasks of each one.
+     *
+     * @param ticks The number of ticks to advance
+     */
+    public void advance(long ticks) {
+        for (long i = 0; i < ticks; i++) tick();
+    }
+
+    /**
+     * @return The number of tasks that are scheduled or prepared and not cancelled yet
+     */
+    public int getPendingCount() {
+        return tasks.size();
+    }
+
+    private VirtualTask poll(long now) {
+        synchronized (queue) {
+            VirtualTask task = queue.peek();
+            return task != null && task.due <= now ? queue.poll() : null;
+        }
+    }
+
+    private void enqueue(VirtualTask task, long delay) {
+        // in wall-clock time, so recordings only show the order of virtual runs, not their latency
+        task.metrics.submittedTicks(Math.max(delay, 1L), task.period);
+
+        synchronized (queue) {
+            task.due = currentTick + Math.max(delay, 1L);
+            task.sequence = sequence++;
+            queue.add(task);
+        }
+    }
+
+    private static long toTicks(long duration, TimeUnit unit) {
+        long nanos = unit.toNanos(Math.max(duration, 0L));
+        return (nanos + TICK_NANOS - 1) / TICK_NANOS;
+    }
+
+    private static void checkPeriod(long period) {
+        if (period <= 0) throw new IllegalArgumentException("Period must be positive: " + period);
+    }
+
+    private static Object regionOf(Location location) {
+        return TaskIndex.keyOf(location, 8);
+    }
+
+    private boolean isActingAs(Object context) {
+        return tickThread == Thread.currentThread() && context.equals(this.context);
+    }
+
+    private RunnableTask schedule(Plugin plugin, Runnable runnable, TaskLane lane, Object target, long delay, long period) {
+        VirtualTask task = new VirtualTask(plugin, runnable, lane, target, period, false);
+        enqueue(task, delay);
+        return task;
+    }
+
+    @Override
+    public boolean isGlobalThread() {
+        return isActingAs(GLOBAL);
+    }
+
+    @Override
+    public boolean isTickThread() {
+        return tickThread == Thread.currentThread() && context != ASYNC;
+    }
+
+    @Override
+    public boolean isEntityThread(Entity entity) {
+        return isActingAs(regionOf(entity.getLocation()));
+    }
+
+    @Override
+    public boolean isRegionThread(Location location) {
+        return isActingAs(regionOf(location));
+    }
+
+    @Override
+    public RunnableTask runTask(Runnable runnable) {
+        return runTask(plugin, runnable);
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Runnable runnable, long delay) {
+        return runTaskLater(plugin, runnable, delay);
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Runnable runnable, long delay, long period) {
+        return runTaskTimer(plugin, runnable, delay, period);
+    }
+
+    @Override
+    public RunnableTask runTask(Plugin plugin, Runnable runnable) {
+        return schedule(plugin, runnable, TaskLane.GLOBAL, null, 1L, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Plugin plugin, Runnable runnable, long delay) {
+        return schedule(plugin, runnable, TaskLane.GLOBAL, null, delay, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Plugin plugin, Runnable runnable, long delay, long period) {
+        return schedule(plugin, runnable, TaskLane.GLOBAL, null, delay, Math.max(period, 1L));
+    }
+
+    @Override
+    public RunnableTask runTask(Location location, Runnable runnable) {
+        return schedule(plugin, runnable, TaskLane.REGION, location, 1L, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Location location, Runnable runnable, long delay) {
+        return schedule(plugin, runnable, TaskLane.REGION, location, delay, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Location location, Runnable runnable, long delay, long period) {
+        return schedule(plugin, runnable, TaskLane.REGION, location, delay, Math.max(period, 1L));
+    }
+
+    @Override
+    public RunnableTask runTask(Entity entity, Runnable runnable) {
+        return runTask(entity, runnable, null);
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Entity entity, Runnable runnable, long delay) {
+        return runTaskLater(entity, runnable, null, delay);
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Entity entity, Runnable runnable, long delay, long period) {
+        return runTaskTimer(entity, runnable, null, delay, period);
+    }
+
+    @Override
+    public RunnableTask runTask(Entity entity, Runnable runnable, Runnable retired) {
+        return schedule(entity, runnable, retired, 1L, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskLater(Entity entity, Runnable runnable, Runnable retired, long delay) {
+        return schedule(entity, runnable, retired, delay, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskTimer(Entity entity, Runnable runnable, Runnable retired, long delay, long period) {
+        return schedule(entity, runnable, retired, delay, Math.max(period, 1L));
+    }
+
+    private RunnableTask schedule(Entity entity, Runnable runnable, Runnable retired, long delay, long period) {
+        VirtualTask task = new VirtualTask(plugin, runnable, TaskLane.ENTITY, entity, period, false);
+        task.retired = retired;
+        enqueue(task, delay);
+        return task;
+    }
+
+    @Override
+    public ReusableTask prepare(Runnable runnable) {
+        return new VirtualTask(plugin, runnable, TaskLane.GLOBAL, null, 0L, true);
+    }
+
+    @Override
+    public ReusableTask prepare(Location location, Runnable runnable) {
+        return new VirtualTask(plugin, runnable, TaskLane.REGION, location, 0L, true);
+    }
+
+    @Override
+    public ReusableTask prepare(Entity entity, Runnable runnable) {
+        return new VirtualTask(plugin, runnable, TaskLane.ENTITY, entity, 0L, true);
+    }
+
+    @Override
+    public CompletableFuture<Void> runForEach(Collection<? extends Location> locations, Consumer<? super Location> action) {
+        return new LocationBatch(this, action).runByRegion(locations);
+    }
+
+    @Override
+    public CompletableFuture<Void> parallelForEach(Collection<? extends Entity> entities, Consumer<? super Entity> action) {
+        return new EntityBatch(this, action).runByRegion(entities);
+    }
+
+    @Override
+    public boolean debounce(Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(null, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Location location, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(location, key, runnable, delay);
+    }
+
+    @Override
+    public boolean debounce(Entity entity, Object key, Runnable runnable, long delay) {
+        return coalescer.debounce(entity, key, runnable, delay);
+    }
+
+    @Override
+    public boolean throttle(Object key, Runnable runnable, long period) {
+        return coalescer.throttle(null, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Location location, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(location, key, runnable, period);
+    }
+
+    @Override
+    public boolean throttle(Entity entity, Object key, Runnable runnable, long period) {
+        return coalescer.throttle(entity, key, runnable, period);
+    }
+
+    @Override
+    public double getLoadFactor() {
+        return 1.0;
+    }
+
+    @Override
+    public RunnableTask runTaskAsynchronously(Runnable runnable) {
+        return runTaskAsynchronously(plugin, runnable);
+    }
+
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay) {
+        return runTaskLaterAsynchronously(plugin, runnable, delay);
+    }
+
+    @Override
+    public RunnableTask runTaskTimerAsynchronously(Runnable runnable, long delay, long period) {
+        return runTaskTimerAsynchronously(plugin, runnable, delay, period);
+    }
+
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Runnable runnable, long delay, TimeUnit unit) {
+        return schedule(plugin, runnable, TaskLane.ASYNC, null, toTicks(delay, unit), 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskAtFixedRateAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        checkPeriod(period);
+        return schedule(plugin, runnable, TaskLane.ASYNC, null, toTicks(delay, unit), Math.max(toTicks(period, unit), 1L));
+    }
+
+    @Override
+    public RunnableTask runTaskWithFixedDelayAsynchronously(Runnable runnable, long delay, long period, TimeUnit unit) {
+        // runs take no virtual time, so both modes run on the same ticks
+        return runTaskAtFixedRateAsynchronously(runnable, delay, period, unit);
+    }
+
+    @Override
+    public RunnableTask runTaskAsynchronously(Plugin plugin, Runnable runnable) {
+        return schedule(plugin, runnable, TaskLane.ASYNC, null, 1L, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskLaterAsynchronously(Plugin plugin, Runnable runnable, long delay) {
+        return schedule(plugin, runnable, TaskLane.ASYNC, null, delay, 0L);
+    }
+
+    @Override
+    public RunnableTask runTaskTimerAsynchronously(Plugin plugin, Runnable runnable, long delay, long period) {
+        return schedule(plugin, runnable, TaskLane.ASYNC, null, delay, Math.max(period, 1L));
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        runTask(runnable);
+    }
+
+    @Override
+    public void execute(Location location, Runnable runnable) {
+        runTask(location, runnable);
+    }
+
+    @Override
+    public void execute(Entity entity, Runnable runnable) {
+        runTask(entity, runnable);
+    }
+
+    @Override
+    public void execute(Entity entity, Runnable runnable, Runnable retired) {
+        if (!entity.isValid()) {
+            if (retired != null) retired.run();
+            return;
+        }
+
+        runTask(entity, runnable, retired);
+    }
+
+    @Override
+    public void execute(TaskPriority priority, Runnable runnable) {
+        pump.execute(priority, runnable);
+    }
+
+    @Override
+    public void setPriorityBudget(long budgetNanos) {
+        pump.setBudget(budgetNanos);
+    }
+
+    @Override
+    public void cancel(int taskId) {
+        VirtualTask task = tasks.get(taskId);
+        if (task != null) task.cancel();
+    }
+
+    @Override
+    public void cancel(Location location) {
+        Object key = TaskIndex.keyOf(location);
+        tasks.forEach(t -> {
+            if (t.target instanceof Location && key.equals(TaskIndex.keyOf((Location) t.target))) t.cancel();
+        });
+    }
+
+    @Override
+    public void cancel(Entity entity) {
+        tasks.forEach(t -> {
+            if (t.target == entity) t.cancel();
+        });
+    }
+
+    @Override
+    public void cancelAll() {
+        cancelAll(plugin);
+    }
+
+    @Override
+    public void cancelAll(Plugin plugin) {
+        if (plugin == this.plugin) coalescer.clear();
+        tasks.forEach(t -> {
+            if (t.plugin == plugin) t.cancel();
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualScheduler{plugin=" + plugin + ", tick=" + currentTick + '}';
+    }
+
+    private final class VirtualTask implements ReusableTask, Comparable<VirtualTask> {
+
+        private final Plugin plugin;
+        private final Runnable runnable;
+        private final TaskLane lane;
+        private final Object target;
+        private final long period;
+        private final boolean reusable;
+        @Getter
+        private final int taskId;
+        @Getter
+        private final TaskMetrics metrics;
+
+        private Runnable retired;
+        // guarded by the queue
+        private long due, sequence;
+
+        private volatile boolean cancelled, running, pending;
+
+        private VirtualTask(Plugin plugin, Runnable runnable, TaskLane lane, Object target, long period, boolean reusable) {
+            this.plugin = plugin;
+            this.runnable = runnable;
+            this.lane = lane;
+            this.target = target;
+            this.period = period;
+            this.reusable = reusable;
+            this.metrics = VirtualScheduler.this.metrics.track(plugin, runnable, lane);
+            this.taskId = ids.incrementAndGet();
+            this.pending = !reusable;
+            tasks.put(taskId, this);
+        }
+
+        private void runAt(long now) {
+            if (cancelled) return;
+
+            Object context;
+            switch (lane) {
+                case REGION:
+                    context = regionOf((Location) target);
+                    break;
+                case ENTITY:
+                    Entity entity = (Entity) target;
+                    if (!entity.isValid()) {
+                        cancel();
+                        if (retired != null) retired.run();
+                        return;
+                    }
+                    context = regionOf(entity.getLocation());
+                    break;
+                case ASYNC:
+                    context = ASYNC;
+                    break;
+                default:
+                    context = GLOBAL;
+            }
+
+            VirtualScheduler.this.context = context;
+            pending = false;
+            running = true;
+            try {
+                metrics.run(runnable);
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.WARNING, "Task " + taskId + " generated an exception", t);
+            } finally {
+                running = false;
+                VirtualScheduler.this.context = null;
+            }
+
+            if (cancelled) return;
+            if (period > 0) {
+                pending = true;
+                synchronized (queue) {
+                    due = now + period;
+                    sequence = VirtualScheduler.this.sequence++;
+                    queue.add(this);
+                }
+            } else if (!reusable)
+                tasks.remove(taskId, this);
+        }
+
+        @Override
+        public boolean schedule(long delay) {
+            synchronized (this) {
+                if (cancelled || pending) return false;
+                pending = true;
+            }
+
+            enqueue(this, delay);
+            return true;
+        }
+
+        @Override
+        public boolean isPending() {
+            return pending;
+        }
+
+        @Override
+        public void cancel() {
+            // cancelled tasks stay queued until their deadline, and are skipped then
+            if (!cancelled) metrics.cancelled();
+            cancelled = true;
+            pending = false;
+            tasks.remove(taskId, this);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public Plugin getPlugin() {
+            return plugin;
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running;
+        }
+
+        @Override
+        public boolean isRepeating() {
+            return period > 0;
+        }
+
+        @Override
+        public int compareTo(VirtualTask o) {
+            int compare = Long.compare(due, o.due);
+            return compare != 0 ? compare : Long.compare(sequence, o.sequence);
+        }
+
+        @Override
+        public String toString() {
+            return "VirtualTask{id=" + taskId + ", lane=" + lane + ", due=" + due + '}';
+        }
+    }
+}